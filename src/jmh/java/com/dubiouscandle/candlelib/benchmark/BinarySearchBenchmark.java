@@ -0,0 +1,79 @@
+package com.dubiouscandle.candlelib.benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dubiouscandle.candlelib.algorithm.BinarySearch;
+
+import it.unimi.dsi.fastutil.ints.IntArrays;
+
+/**
+ * {@link BinarySearch#floor(int[], int, int, int)} against
+ * {@link Arrays#binarySearch(int[], int)} and fastutil's
+ * {@link IntArrays#binarySearch(int[], int)}. every benchmark searches for
+ * {@link #size} keys, half of which are in the array, so the scores are per
+ * pass and have to be divided by {@link #size} to get them per search
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BinarySearchBenchmark {
+	@Param({ "1000", "100000", "1000000" })
+	public int size;
+
+	private int[] array;
+	private int[] keys;
+
+	@Setup
+	public void setup() {
+		// even numbers, so that odd keys miss
+		array = new int[size];
+		for (int i = 0; i < size; i++) {
+			array[i] = i << 1;
+		}
+
+		keys = Keys.generate("sequential", size, 42);
+	}
+
+	@Benchmark
+	public int candle() {
+		int sum = 0;
+		for (int key : keys) {
+			sum += BinarySearch.floor(array, key, 0, size - 1);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int jdk() {
+		int sum = 0;
+		for (int key : keys) {
+			sum += Arrays.binarySearch(array, key);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int fastutil() {
+		int sum = 0;
+		for (int key : keys) {
+			sum += IntArrays.binarySearch(array, key);
+		}
+		return sum;
+	}
+}
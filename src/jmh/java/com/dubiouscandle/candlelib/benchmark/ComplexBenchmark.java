@@ -0,0 +1,117 @@
+package com.dubiouscandle.candlelib.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dubiouscandle.candlelib.extendedmath.Complex;
+
+/**
+ * arithmetic on {@link Complex} against the same arithmetic on pairs of
+ * doubles. neither java.util nor fastutil have complex numbers, so the
+ * baseline is the allocation free code that {@link Complex} replaces, and the
+ * gc profiler shows what the immutable objects cost. every benchmark evaluates
+ * {@link #N} operations and the scores are per operation
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ComplexBenchmark {
+	public static final int N = 1024;
+
+	private Complex[] complex;
+	private double[] re;
+	private double[] im;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(42);
+		complex = new Complex[N];
+		re = new double[N];
+		im = new double[N];
+		for (int i = 0; i < N; i++) {
+			re[i] = random.nextDouble() * 2 - 1;
+			im[i] = random.nextDouble() * 2 - 1;
+			complex[i] = new Complex(re[i], im[i]);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(N)
+	public Complex candleMulAdd() {
+		Complex sum = Complex.ZERO;
+		for (int i = 1; i < N; i++) {
+			sum = sum.add(complex[i].mul(complex[i - 1]));
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(N)
+	public double primitiveMulAdd() {
+		double sumRe = 0;
+		double sumIm = 0;
+		for (int i = 1; i < N; i++) {
+			sumRe += re[i] * re[i - 1] - im[i] * im[i - 1];
+			sumIm += re[i] * im[i - 1] + im[i] * re[i - 1];
+		}
+		return sumRe + sumIm;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(N)
+	public Complex candleDiv() {
+		Complex sum = Complex.ZERO;
+		for (int i = 1; i < N; i++) {
+			sum = sum.add(complex[i].div(complex[i - 1]));
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(N)
+	public double primitiveDiv() {
+		double sumRe = 0;
+		double sumIm = 0;
+		for (int i = 1; i < N; i++) {
+			double d = re[i - 1] * re[i - 1] + im[i - 1] * im[i - 1];
+			sumRe += (re[i] * re[i - 1] + im[i] * im[i - 1]) / d;
+			sumIm += (im[i] * re[i - 1] - re[i] * im[i - 1]) / d;
+		}
+		return sumRe + sumIm;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(N)
+	public double candleAbs() {
+		double sum = 0;
+		for (int i = 0; i < N; i++) {
+			sum += complex[i].abs();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(N)
+	public double primitiveAbs() {
+		double sum = 0;
+		for (int i = 0; i < N; i++) {
+			sum += Math.sqrt(re[i] * re[i] + im[i] * im[i]);
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,122 @@
+package com.dubiouscandle.candlelib.benchmark;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dubiouscandle.candlelib.datastructures.Deque;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayFIFOQueue;
+
+/**
+ * queue and stack use of {@link Deque} against {@link ArrayDeque} and
+ * fastutil's {@link ObjectArrayFIFOQueue}. every benchmark adds and removes
+ * all elements once, so the scores and the allocations of the gc profiler are
+ * per pass and have to be divided by {@link #size} to get them per element
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DequeBenchmark {
+	@Param({ "1000", "100000", "1000000" })
+	public int size;
+
+	private Integer[] elements;
+
+	@Setup
+	public void setup() {
+		elements = Keys.box(Keys.generate("random", size, 42));
+	}
+
+	@Benchmark
+	public int candleQueue() {
+		Deque<Integer> deque = new Deque<>();
+		for (Integer e : elements) {
+			deque.append(e);
+		}
+		int sum = 0;
+		for (int i = 0; i < size; i++) {
+			sum += deque.poll();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int jdkQueue() {
+		ArrayDeque<Integer> deque = new ArrayDeque<>();
+		for (Integer e : elements) {
+			deque.addLast(e);
+		}
+		int sum = 0;
+		for (int i = 0; i < size; i++) {
+			sum += deque.pollFirst();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int fastutilQueue() {
+		ObjectArrayFIFOQueue<Integer> queue = new ObjectArrayFIFOQueue<>();
+		for (Integer e : elements) {
+			queue.enqueue(e);
+		}
+		int sum = 0;
+		for (int i = 0; i < size; i++) {
+			sum += queue.dequeue();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int candleStack() {
+		Deque<Integer> deque = new Deque<>();
+		for (Integer e : elements) {
+			deque.push(e);
+		}
+		int sum = 0;
+		for (int i = 0; i < size; i++) {
+			sum += deque.poll();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int jdkStack() {
+		ArrayDeque<Integer> deque = new ArrayDeque<>();
+		for (Integer e : elements) {
+			deque.addFirst(e);
+		}
+		int sum = 0;
+		for (int i = 0; i < size; i++) {
+			sum += deque.pollFirst();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int fastutilStack() {
+		ObjectArrayFIFOQueue<Integer> queue = new ObjectArrayFIFOQueue<>();
+		for (Integer e : elements) {
+			queue.enqueueFirst(e);
+		}
+		int sum = 0;
+		for (int i = 0; i < size; i++) {
+			sum += queue.dequeue();
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,51 @@
+package com.dubiouscandle.candlelib.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dubiouscandle.candlelib.datastructures.FrozenIntIntMap;
+import com.dubiouscandle.candlelib.datastructures.IntIntMap;
+
+/**
+ * the time {@link IntIntMap#freeze()} takes to build the perfect hash of maps
+ * of growing size. the score per key should stay about the same as the size
+ * grows, apart from the cache misses of the larger tables. an exactly minimal
+ * search table once made 8M keys take a minute, where it should take seconds
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FreezeBenchmark {
+	@Param({ "1000000", "4000000", "8000000", "16000000" })
+	public int size;
+
+	private IntIntMap map;
+
+	@Setup
+	public void setup() {
+		int[] keys = Keys.generate("random", size, 42);
+		map = new IntIntMap(size);
+		for (int i = 0; i < size; i++) {
+			map.put(keys[i], i);
+		}
+	}
+
+	@Benchmark
+	public FrozenIntIntMap freeze() {
+		return map.freeze();
+	}
+}
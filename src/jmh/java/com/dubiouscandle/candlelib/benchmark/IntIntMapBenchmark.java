@@ -0,0 +1,138 @@
+package com.dubiouscandle.candlelib.benchmark;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dubiouscandle.candlelib.datastructures.IntIntMap;
+
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+
+/**
+ * puts, lookups and removals on {@link IntIntMap} against {@link HashMap} and
+ * fastutil's {@link Int2IntOpenHashMap}. every benchmark makes one pass over
+ * all keys, so the scores and the allocations of the gc profiler are per pass
+ * and have to be divided by {@link #size} to get them per key
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class IntIntMapBenchmark {
+	@Param({ "1000", "100000", "1000000" })
+	public int size;
+
+	@Param({ "sequential", "random", "strided" })
+	public String distribution;
+
+	/**
+	 * the fraction of the keys that are removed after they are put, which leaves
+	 * tombstones behind in the maps that use them
+	 */
+	@Param({ "0", "0.25" })
+	public double removalRate;
+
+	private int[] keys;
+	private int[] out;
+	private int removals;
+
+	private IntIntMap candle;
+	private HashMap<Integer, Integer> jdk;
+	private Int2IntOpenHashMap fastutil;
+
+	@Setup
+	public void setup() {
+		keys = Keys.generate(distribution, size, 42);
+		out = new int[size];
+		removals = (int) (size * removalRate);
+
+		candle = candlePut();
+		jdk = jdkPut();
+		fastutil = fastutilPut();
+	}
+
+	@Benchmark
+	public IntIntMap candlePut() {
+		IntIntMap map = new IntIntMap();
+		for (int i = 0; i < size; i++) {
+			map.put(keys[i], i);
+		}
+		for (int i = 0; i < removals; i++) {
+			map.remove(keys[i]);
+		}
+		return map;
+	}
+
+	@Benchmark
+	public HashMap<Integer, Integer> jdkPut() {
+		HashMap<Integer, Integer> map = new HashMap<>();
+		for (int i = 0; i < size; i++) {
+			map.put(keys[i], i);
+		}
+		for (int i = 0; i < removals; i++) {
+			map.remove(keys[i]);
+		}
+		return map;
+	}
+
+	@Benchmark
+	public Int2IntOpenHashMap fastutilPut() {
+		Int2IntOpenHashMap map = new Int2IntOpenHashMap();
+		for (int i = 0; i < size; i++) {
+			map.put(keys[i], i);
+		}
+		for (int i = 0; i < removals; i++) {
+			map.remove(keys[i]);
+		}
+		return map;
+	}
+
+	@Benchmark
+	public int candleGet() {
+		int sum = 0;
+		for (int key : keys) {
+			sum += candle.get(key);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int[] candleGetAll() {
+		candle.getAll(keys, out);
+		return out;
+	}
+
+	@Benchmark
+	public int jdkGet() {
+		int sum = 0;
+		for (int key : keys) {
+			Integer value = jdk.get(key);
+			if (value != null) {
+				sum += value;
+			}
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int fastutilGet() {
+		int sum = 0;
+		for (int key : keys) {
+			sum += fastutil.get(key);
+		}
+		return sum;
+	}
+}
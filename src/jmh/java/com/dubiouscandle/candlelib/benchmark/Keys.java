@@ -0,0 +1,70 @@
+package com.dubiouscandle.candlelib.benchmark;
+
+import java.util.HashSet;
+import java.util.Random;
+
+/**
+ * the key distributions shared by the hash structure benchmarks
+ */
+public class Keys {
+	private Keys() {
+	}
+
+	/**
+	 * @param distribution one of "sequential", "random" or "strided". strided keys
+	 *                     are multiples of 256, which all share their low bits
+	 * @param n            the number of keys
+	 * @param seed
+	 * @return n distinct keys in the specified distribution, in random order
+	 */
+	public static int[] generate(String distribution, int n, long seed) {
+		Random random = new Random(seed);
+		int[] keys = new int[n];
+
+		switch (distribution) {
+		case "sequential":
+			for (int i = 0; i < n; i++) {
+				keys[i] = i;
+			}
+			break;
+		case "strided":
+			for (int i = 0; i < n; i++) {
+				keys[i] = i << 8;
+			}
+			break;
+		case "random":
+			HashSet<Integer> seen = new HashSet<>();
+			for (int i = 0; i < n;) {
+				int key = random.nextInt();
+				if (seen.add(key)) {
+					keys[i++] = key;
+				}
+			}
+			break;
+		default:
+			throw new IllegalArgumentException(distribution);
+		}
+
+		for (int i = n - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int temp = keys[i];
+			keys[i] = keys[j];
+			keys[j] = temp;
+		}
+
+		return keys;
+	}
+
+	/**
+	 * @param keys
+	 * @return the keys boxed, so that boxing is not measured by the benchmarks of
+	 *         the object structures
+	 */
+	public static Integer[] box(int[] keys) {
+		Integer[] boxed = new Integer[keys.length];
+		for (int i = 0; i < keys.length; i++) {
+			boxed[i] = keys[i];
+		}
+		return boxed;
+	}
+}
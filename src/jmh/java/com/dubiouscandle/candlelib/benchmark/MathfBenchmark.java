@@ -0,0 +1,127 @@
+package com.dubiouscandle.candlelib.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dubiouscandle.candlelib.extendedmath.Mathf;
+
+/**
+ * the approximations of {@link Mathf} against {@link Math}. fastutil has no
+ * math functions, so there is no fastutil baseline. every benchmark evaluates
+ * {@link #N} inputs and the scores are per evaluation
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MathfBenchmark {
+	public static final int N = 1024;
+
+	private float[] x;
+	private float[] y;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(42);
+		x = new float[N];
+		y = new float[N];
+		for (int i = 0; i < N; i++) {
+			x[i] = (random.nextFloat() - 0.5f) * 100;
+			y[i] = (random.nextFloat() - 0.5f) * 100;
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(N)
+	public float candleSin() {
+		float sum = 0;
+		for (int i = 0; i < N; i++) {
+			sum += Mathf.sin(x[i]);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(N)
+	public float jdkSin() {
+		float sum = 0;
+		for (int i = 0; i < N; i++) {
+			sum += (float) Math.sin(x[i]);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(N)
+	public float candleCos() {
+		float sum = 0;
+		for (int i = 0; i < N; i++) {
+			sum += Mathf.cos(x[i]);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(N)
+	public float jdkCos() {
+		float sum = 0;
+		for (int i = 0; i < N; i++) {
+			sum += (float) Math.cos(x[i]);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(N)
+	public float candleAtan2() {
+		float sum = 0;
+		for (int i = 0; i < N; i++) {
+			sum += Mathf.atan2(y[i], x[i]);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(N)
+	public float jdkAtan2() {
+		float sum = 0;
+		for (int i = 0; i < N; i++) {
+			sum += (float) Math.atan2(y[i], x[i]);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(N)
+	public float candleRsqrt() {
+		float sum = 0;
+		for (int i = 0; i < N; i++) {
+			sum += Mathf.rsqrt(Math.abs(x[i]));
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(N)
+	public float jdkRsqrt() {
+		float sum = 0;
+		for (int i = 0; i < N; i++) {
+			sum += (float) (1 / Math.sqrt(Math.abs(x[i])));
+		}
+		return sum;
+	}
+}
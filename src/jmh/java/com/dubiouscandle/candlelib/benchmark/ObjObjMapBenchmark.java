@@ -0,0 +1,137 @@
+package com.dubiouscandle.candlelib.benchmark;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dubiouscandle.candlelib.datastructures.ObjObjMap;
+
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+
+/**
+ * puts, lookups and removals on {@link ObjObjMap} against {@link HashMap} and
+ * fastutil's {@link Object2ObjectOpenHashMap}, with boxed keys that are
+ * created ahead of time. every benchmark makes one pass over all keys, so the
+ * scores and the allocations of the gc profiler are per pass and have to be
+ * divided by {@link #size} to get them per key
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ObjObjMapBenchmark {
+	@Param({ "1000", "100000", "1000000" })
+	public int size;
+
+	@Param({ "sequential", "random", "strided" })
+	public String distribution;
+
+	/**
+	 * the fraction of the keys that are removed after they are put, which leaves
+	 * tombstones behind in the maps that use them
+	 */
+	@Param({ "0", "0.25" })
+	public double removalRate;
+
+	private Integer[] keys;
+	private int removals;
+
+	private ObjObjMap<Integer, Integer> candle;
+	private HashMap<Integer, Integer> jdk;
+	private Object2ObjectOpenHashMap<Integer, Integer> fastutil;
+
+	@Setup
+	public void setup() {
+		keys = Keys.box(Keys.generate(distribution, size, 42));
+		removals = (int) (size * removalRate);
+
+		candle = candlePut();
+		jdk = jdkPut();
+		fastutil = fastutilPut();
+	}
+
+	@Benchmark
+	public ObjObjMap<Integer, Integer> candlePut() {
+		ObjObjMap<Integer, Integer> map = new ObjObjMap<>();
+		for (int i = 0; i < size; i++) {
+			map.put(keys[i], keys[i]);
+		}
+		for (int i = 0; i < removals; i++) {
+			map.remove(keys[i]);
+		}
+		return map;
+	}
+
+	@Benchmark
+	public HashMap<Integer, Integer> jdkPut() {
+		HashMap<Integer, Integer> map = new HashMap<>();
+		for (int i = 0; i < size; i++) {
+			map.put(keys[i], keys[i]);
+		}
+		for (int i = 0; i < removals; i++) {
+			map.remove(keys[i]);
+		}
+		return map;
+	}
+
+	@Benchmark
+	public Object2ObjectOpenHashMap<Integer, Integer> fastutilPut() {
+		Object2ObjectOpenHashMap<Integer, Integer> map = new Object2ObjectOpenHashMap<>();
+		for (int i = 0; i < size; i++) {
+			map.put(keys[i], keys[i]);
+		}
+		for (int i = 0; i < removals; i++) {
+			map.remove(keys[i]);
+		}
+		return map;
+	}
+
+	@Benchmark
+	public int candleGet() {
+		int sum = 0;
+		for (Integer key : keys) {
+			Integer value = candle.get(key);
+			if (value != null) {
+				sum += value;
+			}
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int jdkGet() {
+		int sum = 0;
+		for (Integer key : keys) {
+			Integer value = jdk.get(key);
+			if (value != null) {
+				sum += value;
+			}
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int fastutilGet() {
+		int sum = 0;
+		for (Integer key : keys) {
+			Integer value = fastutil.get(key);
+			if (value != null) {
+				sum += value;
+			}
+		}
+		return sum;
+	}
+}
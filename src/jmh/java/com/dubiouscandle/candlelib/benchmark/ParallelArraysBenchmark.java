@@ -0,0 +1,90 @@
+package com.dubiouscandle.candlelib.benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dubiouscandle.candlelib.algorithm.ParallelArrays;
+
+/**
+ * {@link ParallelArrays#quicksort(Object[], int[], int, int)} against sorting
+ * packed value and index pairs with {@link Arrays#sort(long[])} and against
+ * fastutil's {@link it.unimi.dsi.fastutil.Arrays#quickSort} with a swapper
+ * that moves both arrays. the java.util baseline then permutes the items with
+ * the sorted indices. every benchmark sorts fresh copies of the same arrays,
+ * and the copying is part of every score
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ParallelArraysBenchmark {
+	@Param({ "1000", "100000", "1000000" })
+	public int size;
+
+	@Param({ "sequential", "random" })
+	public String distribution;
+
+	private Integer[] items;
+	private int[] values;
+
+	@Setup
+	public void setup() {
+		values = Keys.generate(distribution, size, 42);
+		items = Keys.box(values);
+	}
+
+	@Benchmark
+	public Integer[] candle() {
+		Integer[] items = this.items.clone();
+		int[] values = this.values.clone();
+		ParallelArrays.quicksort(items, values, 0, size - 1);
+		return items;
+	}
+
+	@Benchmark
+	public Integer[] jdk() {
+		long[] pairs = new long[size];
+		for (int i = 0; i < size; i++) {
+			pairs[i] = (long) values[i] << 32 | i;
+		}
+		Arrays.sort(pairs);
+
+		Integer[] items = new Integer[size];
+		int[] values = new int[size];
+		for (int i = 0; i < size; i++) {
+			int j = (int) pairs[i];
+			items[i] = this.items[j];
+			values[i] = this.values[j];
+		}
+		return items;
+	}
+
+	@Benchmark
+	public Integer[] fastutil() {
+		Integer[] items = this.items.clone();
+		int[] values = this.values.clone();
+		it.unimi.dsi.fastutil.Arrays.quickSort(0, size, (a, b) -> Integer.compare(values[a], values[b]), (a, b) -> {
+			Integer item = items[a];
+			items[a] = items[b];
+			items[b] = item;
+			int value = values[a];
+			values[a] = values[b];
+			values[b] = value;
+		});
+		return items;
+	}
+}
@@ -0,0 +1,90 @@
+package com.dubiouscandle.candlelib.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dubiouscandle.candlelib.datastructures.PriorityQueue;
+
+import it.unimi.dsi.fastutil.objects.ObjectHeapPriorityQueue;
+
+/**
+ * heap sorting through {@link PriorityQueue} against
+ * {@link java.util.PriorityQueue} and fastutil's
+ * {@link ObjectHeapPriorityQueue}. every benchmark adds and polls all elements
+ * once, so the scores and the allocations of the gc profiler are per pass and
+ * have to be divided by {@link #size} to get them per element
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PriorityQueueBenchmark {
+	@Param({ "1000", "100000", "1000000" })
+	public int size;
+
+	/**
+	 * sequential elements are added in random order, and random ones are spread
+	 * over all ints
+	 */
+	@Param({ "sequential", "random" })
+	public String distribution;
+
+	private Integer[] elements;
+
+	@Setup
+	public void setup() {
+		elements = Keys.box(Keys.generate(distribution, size, 42));
+	}
+
+	@Benchmark
+	public int candle() {
+		PriorityQueue<Integer> queue = new PriorityQueue<>();
+		for (Integer e : elements) {
+			queue.add(e);
+		}
+		int sum = 0;
+		for (int i = 0; i < size; i++) {
+			sum += queue.poll();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int jdk() {
+		java.util.PriorityQueue<Integer> queue = new java.util.PriorityQueue<>();
+		for (Integer e : elements) {
+			queue.add(e);
+		}
+		int sum = 0;
+		for (int i = 0; i < size; i++) {
+			sum += queue.poll();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int fastutil() {
+		ObjectHeapPriorityQueue<Integer> queue = new ObjectHeapPriorityQueue<>();
+		for (Integer e : elements) {
+			queue.enqueue(e);
+		}
+		int sum = 0;
+		for (int i = 0; i < size; i++) {
+			sum += queue.dequeue();
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,196 @@
+package com.dubiouscandle.candlelib.benchmark;
+
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dubiouscandle.candlelib.datastructures.DenseSet;
+import com.dubiouscandle.candlelib.datastructures.UnorderedSet;
+
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
+
+/**
+ * adds, contains checks, removals and iteration on {@link UnorderedSet} and
+ * {@link DenseSet} against {@link HashSet} and fastutil's
+ * {@link ObjectOpenHashSet}. every benchmark makes one pass over all
+ * elements, so the scores and the allocations of the gc profiler are per pass
+ * and have to be divided by {@link #size} to get them per element
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class UnorderedSetBenchmark {
+	@Param({ "1000", "100000", "1000000" })
+	public int size;
+
+	@Param({ "sequential", "random", "strided" })
+	public String distribution;
+
+	/**
+	 * the fraction of the elements that are removed after they are added, which
+	 * leaves tombstones behind in the sets that use them
+	 */
+	@Param({ "0", "0.25" })
+	public double removalRate;
+
+	private Integer[] elements;
+	private int removals;
+
+	private UnorderedSet<Integer> candle;
+	private DenseSet<Integer> dense;
+	private HashSet<Integer> jdk;
+	private ObjectOpenHashSet<Integer> fastutil;
+
+	@Setup
+	public void setup() {
+		elements = Keys.box(Keys.generate(distribution, size, 42));
+		removals = (int) (size * removalRate);
+
+		candle = candleAdd();
+		dense = denseAdd();
+		jdk = jdkAdd();
+		fastutil = fastutilAdd();
+	}
+
+	@Benchmark
+	public UnorderedSet<Integer> candleAdd() {
+		UnorderedSet<Integer> set = new UnorderedSet<>();
+		for (int i = 0; i < size; i++) {
+			set.add(elements[i]);
+		}
+		for (int i = 0; i < removals; i++) {
+			set.remove(elements[i]);
+		}
+		return set;
+	}
+
+	@Benchmark
+	public DenseSet<Integer> denseAdd() {
+		DenseSet<Integer> set = new DenseSet<>();
+		for (int i = 0; i < size; i++) {
+			set.add(elements[i]);
+		}
+		for (int i = 0; i < removals; i++) {
+			set.remove(elements[i]);
+		}
+		return set;
+	}
+
+	@Benchmark
+	public HashSet<Integer> jdkAdd() {
+		HashSet<Integer> set = new HashSet<>();
+		for (int i = 0; i < size; i++) {
+			set.add(elements[i]);
+		}
+		for (int i = 0; i < removals; i++) {
+			set.remove(elements[i]);
+		}
+		return set;
+	}
+
+	@Benchmark
+	public ObjectOpenHashSet<Integer> fastutilAdd() {
+		ObjectOpenHashSet<Integer> set = new ObjectOpenHashSet<>();
+		for (int i = 0; i < size; i++) {
+			set.add(elements[i]);
+		}
+		for (int i = 0; i < removals; i++) {
+			set.remove(elements[i]);
+		}
+		return set;
+	}
+
+	@Benchmark
+	public int candleContains() {
+		int count = 0;
+		for (Integer e : elements) {
+			if (candle.contains(e)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int denseContains() {
+		int count = 0;
+		for (Integer e : elements) {
+			if (dense.contains(e)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int jdkContains() {
+		int count = 0;
+		for (Integer e : elements) {
+			if (jdk.contains(e)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int fastutilContains() {
+		int count = 0;
+		for (Integer e : elements) {
+			if (fastutil.contains(e)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Benchmark
+	public int candleIterate() {
+		int sum = 0;
+		for (Integer e : candle) {
+			sum += e;
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int denseIterate() {
+		int sum = 0;
+		for (Integer e : dense) {
+			sum += e;
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int jdkIterate() {
+		int sum = 0;
+		for (Integer e : jdk) {
+			sum += e;
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int fastutilIterate() {
+		int sum = 0;
+		for (Integer e : fastutil) {
+			sum += e;
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,167 @@
+package com.dubiouscandle.candlelib.benchmark;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.dubiouscandle.candlelib.datastructures.Vector;
+
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
+/**
+ * appending, indexed reads, iteration and unordered removal on {@link Vector}
+ * against {@link ArrayList} and fastutil's {@link ObjectArrayList}. every
+ * benchmark makes one pass over all elements, so the scores and the
+ * allocations of the gc profiler are per pass and have to be divided by
+ * {@link #size} to get them per element
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class VectorBenchmark {
+	@Param({ "1000", "100000", "1000000" })
+	public int size;
+
+	private Integer[] elements;
+
+	private Vector<Integer> candle;
+	private ArrayList<Integer> jdk;
+	private ObjectArrayList<Integer> fastutil;
+
+	@Setup
+	public void setup() {
+		elements = Keys.box(Keys.generate("random", size, 42));
+
+		candle = candleAdd();
+		jdk = jdkAdd();
+		fastutil = fastutilAdd();
+	}
+
+	@Benchmark
+	public Vector<Integer> candleAdd() {
+		Vector<Integer> vector = new Vector<>();
+		for (Integer e : elements) {
+			vector.add(e);
+		}
+		return vector;
+	}
+
+	@Benchmark
+	public ArrayList<Integer> jdkAdd() {
+		ArrayList<Integer> list = new ArrayList<>();
+		for (Integer e : elements) {
+			list.add(e);
+		}
+		return list;
+	}
+
+	@Benchmark
+	public ObjectArrayList<Integer> fastutilAdd() {
+		ObjectArrayList<Integer> list = new ObjectArrayList<>();
+		for (Integer e : elements) {
+			list.add(e);
+		}
+		return list;
+	}
+
+	@Benchmark
+	public int candleGet() {
+		int sum = 0;
+		for (int i = 0; i < candle.size; i++) {
+			sum += candle.get(i);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int jdkGet() {
+		int sum = 0;
+		for (int i = 0; i < jdk.size(); i++) {
+			sum += jdk.get(i);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int fastutilGet() {
+		int sum = 0;
+		for (int i = 0; i < fastutil.size(); i++) {
+			sum += fastutil.get(i);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int candleIterate() {
+		int sum = 0;
+		for (Integer e : candle) {
+			sum += e;
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int jdkIterate() {
+		int sum = 0;
+		for (Integer e : jdk) {
+			sum += e;
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int fastutilIterate() {
+		int sum = 0;
+		for (Integer e : fastutil) {
+			sum += e;
+		}
+		return sum;
+	}
+
+	/**
+	 * fills a vector and empties it again by swapping the first element with the
+	 * last one
+	 */
+	@Benchmark
+	public int candleRemoveUnordered() {
+		Vector<Integer> vector = candleAdd();
+		while (vector.size > 0) {
+			vector.removeUnordered(0);
+		}
+		return vector.size;
+	}
+
+	@Benchmark
+	public int jdkRemoveUnordered() {
+		ArrayList<Integer> list = jdkAdd();
+		while (!list.isEmpty()) {
+			list.set(0, list.get(list.size() - 1));
+			list.remove(list.size() - 1);
+		}
+		return list.size();
+	}
+
+	@Benchmark
+	public int fastutilRemoveUnordered() {
+		ObjectArrayList<Integer> list = fastutilAdd();
+		while (!list.isEmpty()) {
+			list.set(0, list.get(list.size() - 1));
+			list.remove(list.size() - 1);
+		}
+		return list.size();
+	}
+}
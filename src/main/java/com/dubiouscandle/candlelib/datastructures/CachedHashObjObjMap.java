@@ -0,0 +1,284 @@
+package com.dubiouscandle.candlelib.datastructures;
+
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+
+/**
+ * An Object to Object map implemented using open addressing and double hashing
+ * that stores the hash code of every key next to it. Probes compare the stored
+ * hash codes before calling equals, resizing never calls hashCode, and the
+ * first slot of a probe is taken from a mixed hash so that keys whose hash
+ * codes only differ in their high bits do not pile up on the same slots. This
+ * class does not guarantee especially fast putting and contains checking after
+ * many removals. Therefore it is necessary for the user to manually call
+ * {@link #rehash()} when necessary to maintain performance.
+ */
+public class CachedHashObjObjMap<K, V> {
+	public static final Object TOMBSTONE = new Object();
+	@SuppressWarnings("unchecked")
+	private final V tombstone = (V) TOMBSTONE;
+	/**
+	 * the keys of this map for convenient iteration. do not modify this array!
+	 */
+	public K[] keys;
+
+	/**
+	 * the values of this map for convenient iteration. do not modify this array!
+	 */
+	public V[] values;
+
+	/**
+	 * the hash codes of the keys of this map. do not modify this array!
+	 */
+	public int[] hashes;
+
+	/**
+	 * the number of key-value pairs in this map. do not modify this field!
+	 */
+	public int size;
+
+	@SuppressWarnings("unchecked")
+	public CachedHashObjObjMap() {
+		size = 0;
+		keys = (K[]) new Object[16];
+		values = (V[]) new Object[16];
+		hashes = new int[16];
+	}
+
+	/**
+	 * @param key
+	 * @return the value associated with the specified key, or null if there is none
+	 */
+	public V get(K key) {
+		int i = indexOf(key, key.hashCode());
+		return i == -1 ? null : values[i];
+	}
+
+	/**
+	 * removes the specified key and its associated value from this map
+	 * 
+	 * @param key
+	 * @return the value that was associated with the specified key, or null if
+	 *         there was none
+	 */
+	public V remove(K key) {
+		int i = indexOf(key, key.hashCode());
+
+		if (i == -1) {
+			return null;
+		}
+
+		V oldValue = values[i];
+		values[i] = tombstone;
+		size--;
+		return oldValue;
+	}
+
+	/**
+	 * puts the key value pair into this map
+	 * 
+	 * @param key
+	 * @param value
+	 * @return the overwritten value, or null if there was none
+	 */
+	public V put(K key, V value) {
+		int mask = values.length - 1;
+		int h = key.hashCode();
+		int i = mix(h) & mask;
+
+		if (values[i] != null) {
+			int d = doubleHash(h);
+			int firstTombstone = -1;
+			int end = i;
+			do {
+				if (values[i] == tombstone) {
+					if (firstTombstone == -1) {
+						firstTombstone = i;
+					}
+				} else if (hashes[i] == h && key.equals(keys[i])) {
+					V oldValue = values[i];
+					values[i] = value;
+					return oldValue;
+				}
+				i = (i + d) & mask;
+			} while (values[i] != null && i != end);
+
+			if (firstTombstone != -1) {
+				i = firstTombstone;
+			}
+		}
+
+		keys[i] = key;
+		values[i] = value;
+		hashes[i] = h;
+		size++;
+		if (size << 1 > values.length) {
+			resize(values.length << 1);
+		}
+		return null;
+	}
+
+	public boolean containsKey(K key) {
+		return indexOf(key, key.hashCode()) != -1;
+	}
+
+	/**
+	 * @param key
+	 * @param h   the hash code of the key
+	 * @return the slot of the specified key, or -1 if it is not in this map
+	 */
+	private int indexOf(K key, int h) {
+		int mask = values.length - 1;
+		int i = mix(h) & mask;
+
+		if (values[i] == null) {
+			return -1;
+		}
+
+		int d = doubleHash(h);
+		int end = i;
+
+		do {
+			if (hashes[i] == h && values[i] != tombstone && key.equals(keys[i])) {
+				return i;
+			}
+
+			i = (i + d) & mask;
+		} while (values[i] != null && i != end);
+
+		return -1;
+	}
+
+	/**
+	 * @param x
+	 * @return the hash used to find the first slot of a probe. the low bits of the
+	 *         result depend on every bit of the hash code
+	 */
+	protected int mix(int x) {
+		x *= 0x9e3779b9;
+		return x ^ (x >>> 16);
+	}
+
+	/**
+	 * @param x
+	 * @return the double hash function for this map
+	 */
+	protected int doubleHash(int x) {
+		x = (x + 0x7ed55d16) + (x << 12);
+		x = (x ^ 0xc761c23c) ^ (x >> 19);
+		x = (x + 0x165667b1) + (x << 5);
+		x = (x + 0xd3a2646c) ^ (x << 9);
+		x = (x + 0xfd7046c5) + (x << 3);
+		x = (x ^ 0xb55a4f09) ^ (x >> 16);
+		return (x & 1) == 1 ? x : (x << 1 | 1);
+	}
+
+	/**
+	 * clears this map of all keys and values
+	 */
+	public void clear() {
+		size = 0;
+		for (int i = 0; i < values.length; i++) {
+			keys[i] = null;
+			values[i] = null;
+		}
+	}
+
+	/**
+	 * resized and rehashes all keys and values in this map using the stored hash
+	 * codes
+	 * 
+	 * @param newSize the new size of the underlying map. this value should be a
+	 *                power of 2
+	 */
+	@SuppressWarnings("unchecked")
+	private void resize(int newSize) {
+		K[] oldKeys = keys;
+		V[] oldValues = values;
+		int[] oldHashes = hashes;
+
+		values = (V[]) new Object[newSize];
+		keys = (K[]) new Object[newSize];
+		hashes = new int[newSize];
+
+		int mask = newSize - 1;
+
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldValues[i] == null || oldValues[i] == TOMBSTONE) {
+				continue;
+			}
+
+			int h = oldHashes[i];
+			int j = mix(h) & mask;
+			int d = doubleHash(h);
+
+			while (values[j] != null) {
+				j = (j + d) & mask;
+			}
+
+			keys[j] = oldKeys[i];
+			values[j] = oldValues[i];
+			hashes[j] = h;
+		}
+	}
+
+	/**
+	 * rehashes all keys and values in this map
+	 */
+	public void rehash() {
+		resize(values.length);
+	}
+
+	/**
+	 * performs the specified action on every key and value of this map
+	 * 
+	 * @param action
+	 */
+	public void forEach(BiConsumer<? super K, ? super V> action) {
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != null && values[i] != tombstone) {
+				action.accept(keys[i], values[i]);
+			}
+		}
+	}
+
+	/**
+	 * removes every entry for which the specified filter returns true
+	 * 
+	 * @param filter
+	 * @return the number of removed entries
+	 */
+	public int removeIf(BiPredicate<? super K, ? super V> filter) {
+		int removed = 0;
+
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != null && values[i] != tombstone && filter.test(keys[i], values[i])) {
+				values[i] = tombstone;
+				removed++;
+			}
+		}
+
+		size -= removed;
+		return removed;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append('{');
+		boolean first = true;
+		for (int i = 0; i < keys.length; i++) {
+			if (values[i] != TOMBSTONE && values[i] != null) {
+				if (first) {
+					first = false;
+				} else {
+					sb.append(", ");
+				}
+
+				sb.append(keys[i]).append('=').append(values[i]);
+			}
+		}
+		sb.append('}');
+		return sb.toString();
+	}
+}
@@ -0,0 +1,300 @@
+package com.dubiouscandle.candlelib.datastructures;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * open addressing implementation using double hashing that stores the hash code
+ * of every element next to it. probes compare the stored hash codes before
+ * calling equals, resizing never calls hashCode, and the first slot of a probe
+ * is taken from a mixed hash so that elements whose hash codes only differ in
+ * their high bits do not pile up on the same slots. the behavior of null values
+ * is undefined. this class is not designed for especially fast iteration.
+ * 
+ * @param <T> the type of the elements in the set
+ */
+public class CachedHashSet<T> implements Iterable<T> {
+	/**
+	 * the tombstone marker for this set for convienient iteration
+	 */
+	public static final Object TOMBSTONE = new Object();
+
+	@SuppressWarnings("unchecked")
+	private T tombstone = (T) TOMBSTONE;
+
+	/**
+	 * The values of this set for convienient iteration
+	 */
+	public T[] values;
+
+	/**
+	 * the hash codes of the values of this set. do not modify this array!
+	 */
+	public int[] hashes;
+
+	/**
+	 * the number of elements in this set. do not change this value!
+	 */
+	public int size;
+
+	@SuppressWarnings("unchecked")
+	public CachedHashSet() {
+		values = (T[]) new Object[16];
+		hashes = new int[16];
+		size = 0;
+	}
+
+	/**
+	 * adds the specified element to this set
+	 * 
+	 * @param e
+	 * @return true if the element was added (the element was not already in the
+	 *         set)
+	 */
+	public boolean add(T e) {
+		int mask = values.length - 1;
+		int h = e.hashCode();
+		int i = mix(h) & mask;
+		int firstTombstone = -1;
+
+		if (values[i] != null) {
+			int d = doubleHash(h);
+			int end = i;
+
+			do {
+				if (values[i] == tombstone) {
+					if (firstTombstone == -1) {
+						firstTombstone = i;
+					}
+				} else if (hashes[i] == h && e.equals(values[i])) {
+					return false;
+				}
+
+				i = (i + d) & mask;
+			} while (values[i] != null && i != end);
+		}
+
+		if (firstTombstone != -1) {
+			i = firstTombstone;
+		}
+
+		values[i] = e;
+		hashes[i] = h;
+		size++;
+		if (size << 1 > values.length) {
+			resize(values.length << 1);
+		}
+		return true;
+	}
+
+	/**
+	 * resizes and rehashes all elements in this set using the stored hash codes
+	 * 
+	 * @param newSize the new size of the underlying table. this value should be a
+	 *                power of 2
+	 */
+	@SuppressWarnings("unchecked")
+	private void resize(int newSize) {
+		T[] oldValues = values;
+		int[] oldHashes = hashes;
+		values = (T[]) new Object[newSize];
+		hashes = new int[newSize];
+		int mask = values.length - 1;
+
+		for (int i = 0; i < oldValues.length; i++) {
+			T e = oldValues[i];
+
+			if (e == null || e == tombstone) {
+				continue;
+			}
+
+			int h = oldHashes[i];
+			int j = mix(h) & mask;
+			int d = doubleHash(h);
+
+			while (values[j] != null) {
+				j = (j + d) & mask;
+			}
+
+			values[j] = e;
+			hashes[j] = h;
+		}
+	}
+
+	/**
+	 * removes the specified element from this set
+	 * 
+	 * @param e
+	 * @return true if the element was removed (the element was in this set before)
+	 */
+	public boolean remove(T e) {
+		int i = indexOf(e, e.hashCode());
+
+		if (i == -1) {
+			return false;
+		}
+
+		size--;
+		values[i] = tombstone;
+		return true;
+	}
+
+	/**
+	 * rehashes all values
+	 */
+	public void rehash() {
+		resize(values.length);
+	}
+
+	/**
+	 * 
+	 * @param e
+	 * @return if this set contains e
+	 */
+	public boolean contains(T e) {
+		return indexOf(e, e.hashCode()) != -1;
+	}
+
+	/**
+	 * @param e
+	 * @param h the hash code of the element
+	 * @return the slot of the specified element, or -1 if it is not in this set
+	 */
+	private int indexOf(T e, int h) {
+		int mask = values.length - 1;
+		int i = mix(h) & mask;
+
+		if (values[i] == null) {
+			return -1;
+		}
+
+		int d = doubleHash(h);
+		int end = i;
+
+		do {
+			if (hashes[i] == h && values[i] != tombstone && e.equals(values[i])) {
+				return i;
+			}
+			i = (i + d) & mask;
+		} while (values[i] != null && i != end);
+
+		return -1;
+	}
+
+	/**
+	 * @param x
+	 * @return the hash used to find the first slot of a probe. the low bits of the
+	 *         result depend on every bit of the hash code
+	 */
+	protected int mix(int x) {
+		x *= 0x9e3779b9;
+		return x ^ (x >>> 16);
+	}
+
+	protected int doubleHash(int x) {
+		x = (x + 0x7ed55d16) + (x << 12);
+		x = (x ^ 0xc761c23c) ^ (x >> 19);
+		x = (x + 0x165667b1) + (x << 5);
+		x = (x + 0xd3a2646c) ^ (x << 9);
+		x = (x + 0xfd7046c5) + (x << 3);
+		x = (x ^ 0xb55a4f09) ^ (x >> 16);
+		return (x & 1) == 1 ? x : (x << 1 | 1);
+	}
+
+	/**
+	 * performs the specified action on every element of this set, without
+	 * creating an iterator
+	 * 
+	 * @param action
+	 */
+	@Override
+	public void forEach(Consumer<? super T> action) {
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != null && values[i] != tombstone) {
+				action.accept(values[i]);
+			}
+		}
+	}
+
+	/**
+	 * removes every element for which the specified filter returns true
+	 * 
+	 * @param filter
+	 * @return the number of removed elements
+	 */
+	public int removeIf(Predicate<? super T> filter) {
+		int removed = 0;
+
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != null && values[i] != tombstone && filter.test(values[i])) {
+				values[i] = tombstone;
+				removed++;
+			}
+		}
+
+		size -= removed;
+		return removed;
+	}
+
+	@Override
+	public String toString() {
+		if (size == 0) {
+			return "[]";
+		}
+
+		StringBuilder sb = new StringBuilder();
+
+		sb.append('[');
+		int i = 0;
+
+		while (values[i] == null || values[i] == tombstone) {
+			i++;
+		}
+
+		sb.append(values[i++]);
+
+		for (; i < values.length; i++) {
+			if (values[i] == null || values[i] == tombstone) {
+				continue;
+			}
+
+			sb.append(',').append(' ').append(values[i]);
+		}
+
+		sb.append(']');
+		return sb.toString();
+	}
+
+	/**
+	 * returns a new iterator for this set
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		return new Iterator<T>() {
+			private int i = 0;
+			private int count = 0;
+
+			@Override
+			public boolean hasNext() {
+				return count < size;
+			}
+
+			@Override
+			public T next() {
+				while (values[i] == null || values[i] == tombstone) {
+					i++;
+				}
+				count++;
+				return values[i++];
+			}
+
+			@Override
+			public void remove() {
+				values[i - 1] = tombstone;
+				size--;
+				count--;
+			}
+		};
+	}
+}
@@ -0,0 +1,375 @@
+package com.dubiouscandle.candlelib.datastructures;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A thread safe int to int map implemented using open addressing and double
+ * hashing. The map is split into segments by the high bits of the hash of each
+ * key. Reads never lock: each slot packs its key and value into a single long
+ * that is read and written atomically, and a slot is only marked occupied after
+ * its entry has been written. Writes lock only the segment of their key, and a
+ * segment that fills up is rebuilt by the thread that filled it while other
+ * segments keep accepting writes and all segments keep serving reads.
+ * <p>
+ * Removals leave tombstones, which are cleaned up when their segment is
+ * rebuilt.
+ */
+public class ConcurrentIntIntMap {
+	private static final VarHandle STATUS = MethodHandles.arrayElementVarHandle(int[].class);
+	private static final VarHandle ENTRIES = MethodHandles.arrayElementVarHandle(long[].class);
+
+	/**
+	 * the default return value in {@link #remove(int)}, {@link #put(int, int)}, and
+	 * {@link #get(int)}. this should be set before the map is shared between
+	 * threads
+	 */
+	public int defaultValue;
+
+	private final Segment[] segments;
+	private final int segmentShift;
+
+	/**
+	 * creates a map with four segments per available processor
+	 */
+	public ConcurrentIntIntMap() {
+		this(Runtime.getRuntime().availableProcessors() << 2);
+	}
+
+	/**
+	 * @param concurrencyLevel the expected number of threads writing at once. this
+	 *                         is rounded up to a power of 2 to get the number of
+	 *                         segments
+	 */
+	public ConcurrentIntIntMap(int concurrencyLevel) {
+		int bits = 32 - Integer.numberOfLeadingZeros(Math.max(concurrencyLevel, 2) - 1);
+		segmentShift = 32 - bits;
+		segments = new Segment[1 << bits];
+		for (int i = 0; i < segments.length; i++) {
+			segments[i] = new Segment();
+		}
+	}
+
+	/**
+	 * the slots of one segment. a table is never written after it has been
+	 * replaced, so readers that still hold it see a consistent older state
+	 */
+	private static final class Table {
+		final int[] status;
+		final long[] entries;
+
+		Table(int capacity) {
+			status = new int[capacity];
+			entries = new long[capacity];
+		}
+	}
+
+	private static final class Segment {
+		volatile Table table = new Table(16);
+		/**
+		 * the number of key-value pairs in this segment. only written while holding
+		 * the lock of this segment
+		 */
+		int size;
+		/**
+		 * the number of slots that are not empty, including tombstones. only written
+		 * while holding the lock of this segment
+		 */
+		int used;
+	}
+
+	/**
+	 * @param key
+	 * @return the value associated with the specified key, or {@link #defaultValue}
+	 *         if there is none
+	 */
+	public int get(int key) {
+		int h = hash(key);
+		Table table = segments[h >>> segmentShift].table;
+		int[] status = table.status;
+		long[] entries = table.entries;
+		int mask = status.length - 1;
+		int i = h & mask;
+		int d = doubleHash(key);
+
+		for (int s; (s = (int) STATUS.getAcquire(status, i)) != IntIntMap.EMPTY; i = (i + d) & mask) {
+			if (s == IntIntMap.OCCUPIED) {
+				long entry = (long) ENTRIES.getAcquire(entries, i);
+
+				if (keyOf(entry) == key) {
+					return valueOf(entry);
+				}
+			}
+		}
+
+		return defaultValue;
+	}
+
+	public boolean containsKey(int key) {
+		int h = hash(key);
+		Table table = segments[h >>> segmentShift].table;
+		int[] status = table.status;
+		long[] entries = table.entries;
+		int mask = status.length - 1;
+		int i = h & mask;
+		int d = doubleHash(key);
+
+		for (int s; (s = (int) STATUS.getAcquire(status, i)) != IntIntMap.EMPTY; i = (i + d) & mask) {
+			if (s == IntIntMap.OCCUPIED && keyOf((long) ENTRIES.getAcquire(entries, i)) == key) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * puts the key value pair into this map
+	 * 
+	 * @param key
+	 * @param value
+	 * @return the overwritten value, or {@link #defaultValue} if there was none
+	 */
+	public int put(int key, int value) {
+		int h = hash(key);
+		Segment segment = segments[h >>> segmentShift];
+
+		synchronized (segment) {
+			Table table = segment.table;
+			int i = indexOf(table, key, h);
+
+			if (i >= 0) {
+				int oldValue = valueOf(table.entries[i]);
+				ENTRIES.setRelease(table.entries, i, entry(key, value));
+				return oldValue;
+			}
+
+			insert(segment, table, -i - 1, key, value);
+			return defaultValue;
+		}
+	}
+
+	/**
+	 * adds the specified delta to the value associated with the specified key as a
+	 * single atomic operation. an absent key counts as {@link #defaultValue}
+	 * 
+	 * @param key
+	 * @param delta
+	 * @return the new value associated with the specified key
+	 */
+	public int addAndGet(int key, int delta) {
+		int h = hash(key);
+		Segment segment = segments[h >>> segmentShift];
+
+		synchronized (segment) {
+			Table table = segment.table;
+			int i = indexOf(table, key, h);
+
+			if (i >= 0) {
+				int newValue = valueOf(table.entries[i]) + delta;
+				ENTRIES.setRelease(table.entries, i, entry(key, newValue));
+				return newValue;
+			}
+
+			int newValue = defaultValue + delta;
+			insert(segment, table, -i - 1, key, newValue);
+			return newValue;
+		}
+	}
+
+	/**
+	 * removes the specified key and its associated value from this map
+	 * 
+	 * @param key
+	 * @return the value that was associated with the specified key, or
+	 *         {@link #defaultValue} if there was none
+	 */
+	public int remove(int key) {
+		int h = hash(key);
+		Segment segment = segments[h >>> segmentShift];
+
+		synchronized (segment) {
+			Table table = segment.table;
+			int i = indexOf(table, key, h);
+
+			if (i < 0) {
+				return defaultValue;
+			}
+
+			STATUS.setRelease(table.status, i, IntIntMap.TOMBSTONE);
+			segment.size--;
+			return valueOf(table.entries[i]);
+		}
+	}
+
+	/**
+	 * must be called while holding the lock of the segment of the table
+	 * 
+	 * @param table
+	 * @param key
+	 * @param h     the hash of the key
+	 * @return the slot of the specified key, or -(insertion slot) - 1 if it is not
+	 *         in the table
+	 */
+	private int indexOf(Table table, int key, int h) {
+		int[] status = table.status;
+		int mask = status.length - 1;
+		int i = h & mask;
+		int d = doubleHash(key);
+		int firstTombstone = -1;
+
+		while (status[i] != IntIntMap.EMPTY) {
+			if (status[i] == IntIntMap.OCCUPIED) {
+				if (keyOf(table.entries[i]) == key) {
+					return i;
+				}
+			} else if (firstTombstone == -1) {
+				firstTombstone = i;
+			}
+
+			i = (i + d) & mask;
+		}
+
+		return -(firstTombstone == -1 ? i : firstTombstone) - 1;
+	}
+
+	/**
+	 * puts a new entry into the specified slot, then rebuilds the segment if it is
+	 * too full. must be called while holding the lock of the segment
+	 */
+	private void insert(Segment segment, Table table, int i, int key, int value) {
+		if (table.status[i] == IntIntMap.EMPTY) {
+			segment.used++;
+		}
+
+		// the entry has to be visible before the slot is marked as occupied
+		ENTRIES.setRelease(table.entries, i, entry(key, value));
+		STATUS.setRelease(table.status, i, IntIntMap.OCCUPIED);
+		segment.size++;
+
+		int capacity = table.status.length;
+		if (segment.used << 1 > capacity) {
+			// only grow if the segment is not mostly tombstones
+			resize(segment, segment.size << 2 > capacity ? capacity << 1 : capacity);
+		}
+	}
+
+	/**
+	 * rehashes all entries of the segment into a new table and publishes it. must
+	 * be called while holding the lock of the segment
+	 */
+	private void resize(Segment segment, int newCapacity) {
+		Table oldTable = segment.table;
+		Table table = new Table(newCapacity);
+		int mask = newCapacity - 1;
+
+		for (int i = 0; i < oldTable.status.length; i++) {
+			if (oldTable.status[i] != IntIntMap.OCCUPIED) {
+				continue;
+			}
+
+			long entry = oldTable.entries[i];
+			int key = keyOf(entry);
+			int j = hash(key) & mask;
+			int d = doubleHash(key);
+
+			while (table.status[j] != IntIntMap.EMPTY) {
+				j = (j + d) & mask;
+			}
+
+			table.status[j] = IntIntMap.OCCUPIED;
+			table.entries[j] = entry;
+		}
+
+		segment.used = segment.size;
+		// the volatile write publishes the filled table to readers
+		segment.table = table;
+	}
+
+	/**
+	 * @return the number of key-value pairs in this map. writes that are in
+	 *         progress at the same time may or may not be counted
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			size += segment.size;
+		}
+		return size;
+	}
+
+	/**
+	 * clears this map of all keys and values. the segments are cleared one at a
+	 * time
+	 */
+	public void clear() {
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				segment.size = 0;
+				segment.used = 0;
+				segment.table = new Table(16);
+			}
+		}
+	}
+
+	private static long entry(int key, int value) {
+		return (long) key << 32 | (value & 0xffffffffL);
+	}
+
+	private static int keyOf(long entry) {
+		return (int) (entry >>> 32);
+	}
+
+	private static int valueOf(long entry) {
+		return (int) entry;
+	}
+
+	/**
+	 * @param x
+	 * @return the hash used to pick the segment with its high bits and the first
+	 *         slot with its low bits
+	 */
+	protected int hash(int x) {
+		x *= 0x9e3779b9;
+		return x ^ (x >>> 16);
+	}
+
+	/**
+	 * @param x
+	 * @return the double hash function for this map
+	 */
+	protected int doubleHash(int x) {
+		x = (x + 0x7ed55d16) + (x << 12);
+		x = (x ^ 0xc761c23c) ^ (x >> 19);
+		x = (x + 0x165667b1) + (x << 5);
+		x = (x + 0xd3a2646c) ^ (x << 9);
+		x = (x + 0xfd7046c5) + (x << 3);
+		x = (x ^ 0xb55a4f09) ^ (x >> 16);
+		return (x & 1) == 1 ? x : (x << 1 | 1);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append('{');
+		boolean first = true;
+		for (Segment segment : segments) {
+			Table table = segment.table;
+
+			for (int i = 0; i < table.status.length; i++) {
+				if ((int) STATUS.getAcquire(table.status, i) == IntIntMap.OCCUPIED) {
+					if (first) {
+						first = false;
+					} else {
+						sb.append(", ");
+					}
+
+					long entry = (long) ENTRIES.getAcquire(table.entries, i);
+					sb.append(keyOf(entry)).append('=').append(valueOf(entry));
+				}
+			}
+		}
+		sb.append('}');
+		return sb.toString();
+	}
+}
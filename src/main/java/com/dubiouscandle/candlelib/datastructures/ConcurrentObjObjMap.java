@@ -0,0 +1,397 @@
+package com.dubiouscandle.candlelib.datastructures;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.function.Function;
+
+/**
+ * A thread safe Object to Object map implemented using open addressing and
+ * double hashing, split into segments like {@link ConcurrentIntIntMap}. Reads
+ * never lock: a slot is marked occupied by writing its key after its value, and
+ * the key of a slot never changes once written, so a reader that finds its key
+ * in a slot reads the value of that key. Writes lock only the segment of their
+ * key, and a segment that fills up is rebuilt into a new table by the thread
+ * that filled it while other segments keep accepting writes and all segments
+ * keep serving reads.
+ * <p>
+ * Removals leave tombstones in the value of the slot. A tombstone is only
+ * reused if the same key is put again, and is otherwise cleaned up when its
+ * segment is rebuilt. The behavior of null keys and values is undefined.
+ */
+public class ConcurrentObjObjMap<K, V> {
+	private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(Object[].class);
+	private static final Object TOMBSTONE = new Object();
+
+	private final Segment[] segments;
+	private final int segmentShift;
+
+	/**
+	 * creates a map with four segments per available processor
+	 */
+	public ConcurrentObjObjMap() {
+		this(Runtime.getRuntime().availableProcessors() << 2);
+	}
+
+	/**
+	 * @param concurrencyLevel the expected number of threads writing at once. this
+	 *                         is rounded up to a power of 2 to get the number of
+	 *                         segments
+	 */
+	public ConcurrentObjObjMap(int concurrencyLevel) {
+		int bits = 32 - Integer.numberOfLeadingZeros(Math.max(concurrencyLevel, 2) - 1);
+		segmentShift = 32 - bits;
+		segments = new Segment[1 << bits];
+		for (int i = 0; i < segments.length; i++) {
+			segments[i] = new Segment();
+		}
+	}
+
+	/**
+	 * the slots of one segment. a table is never written after it has been
+	 * replaced, so readers that still hold it see a consistent older state
+	 */
+	private static final class Table {
+		/**
+		 * null at an empty slot. never changes once it is set
+		 */
+		final Object[] keys;
+		/**
+		 * {@link ConcurrentObjObjMap#TOMBSTONE} at a slot whose key was removed
+		 */
+		final Object[] values;
+
+		Table(int capacity) {
+			keys = new Object[capacity];
+			values = new Object[capacity];
+		}
+	}
+
+	private static final class Segment {
+		volatile Table table = new Table(16);
+		/**
+		 * the number of key-value pairs in this segment. only written while holding
+		 * the lock of this segment
+		 */
+		int size;
+		/**
+		 * the number of slots that have a key, including tombstones. only written
+		 * while holding the lock of this segment
+		 */
+		int used;
+	}
+
+	/**
+	 * @param key
+	 * @return the value associated with the specified key, or null if there is none
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(K key) {
+		int h = hash(key.hashCode());
+		Table table = segments[h >>> segmentShift].table;
+		Object[] keys = table.keys;
+		int mask = keys.length - 1;
+		int i = h & mask;
+		int d = doubleHash(h);
+
+		for (Object k; (k = SLOTS.getAcquire(keys, i)) != null; i = (i + d) & mask) {
+			if (k == key || k.equals(key)) {
+				Object value = SLOTS.getAcquire(table.values, i);
+				return value == TOMBSTONE ? null : (V) value;
+			}
+		}
+
+		return null;
+	}
+
+	public boolean containsKey(K key) {
+		return get(key) != null;
+	}
+
+	/**
+	 * puts the key value pair into this map
+	 * 
+	 * @param key
+	 * @param value
+	 * @return the overwritten value, or null if there was none
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(K key, V value) {
+		int h = hash(key.hashCode());
+		Segment segment = segments[h >>> segmentShift];
+
+		synchronized (segment) {
+			Table table = segment.table;
+			int i = indexOf(table, key, h);
+			Object oldValue = table.values[i];
+
+			store(segment, table, i, key, value);
+			return oldValue == TOMBSTONE ? null : (V) oldValue;
+		}
+	}
+
+	/**
+	 * puts the key value pair into this map if the key is not already in it, as a
+	 * single atomic operation
+	 * 
+	 * @param key
+	 * @param value
+	 * @return the value that was associated with the specified key, or null if
+	 *         there was none and the value was put
+	 */
+	@SuppressWarnings("unchecked")
+	public V putIfAbsent(K key, V value) {
+		int h = hash(key.hashCode());
+		Segment segment = segments[h >>> segmentShift];
+
+		synchronized (segment) {
+			Table table = segment.table;
+			int i = indexOf(table, key, h);
+			Object oldValue = table.values[i];
+
+			if (oldValue != null && oldValue != TOMBSTONE) {
+				return (V) oldValue;
+			}
+
+			store(segment, table, i, key, value);
+			return null;
+		}
+	}
+
+	/**
+	 * associates the specified key with the result of the function if it is not
+	 * already in this map, as a single atomic operation. the function is called
+	 * at most once per absent key, while holding the lock of the segment of the
+	 * key, so it should be short and must not modify this map
+	 * 
+	 * @param key
+	 * @param function is given the key. nothing is put if it returns null
+	 * @return the value that is now associated with the specified key, or null if
+	 *         there is none
+	 */
+	@SuppressWarnings("unchecked")
+	public V computeIfAbsent(K key, Function<? super K, ? extends V> function) {
+		V value = get(key);
+
+		if (value != null) {
+			return value;
+		}
+
+		int h = hash(key.hashCode());
+		Segment segment = segments[h >>> segmentShift];
+
+		synchronized (segment) {
+			Table table = segment.table;
+			int i = indexOf(table, key, h);
+			Object oldValue = table.values[i];
+
+			if (oldValue != null && oldValue != TOMBSTONE) {
+				return (V) oldValue;
+			}
+
+			value = function.apply(key);
+
+			if (value != null) {
+				store(segment, table, i, key, value);
+			}
+			return value;
+		}
+	}
+
+	/**
+	 * removes the specified key and its associated value from this map
+	 * 
+	 * @param key
+	 * @return the value that was associated with the specified key, or null if
+	 *         there was none
+	 */
+	@SuppressWarnings("unchecked")
+	public V remove(K key) {
+		int h = hash(key.hashCode());
+		Segment segment = segments[h >>> segmentShift];
+
+		synchronized (segment) {
+			Table table = segment.table;
+			int i = indexOf(table, key, h);
+			Object oldValue = table.values[i];
+
+			if (oldValue == null || oldValue == TOMBSTONE) {
+				return null;
+			}
+
+			SLOTS.setRelease(table.values, i, TOMBSTONE);
+			segment.size--;
+			return (V) oldValue;
+		}
+	}
+
+	/**
+	 * must be called while holding the lock of the segment of the table
+	 * 
+	 * @param table
+	 * @param key
+	 * @param h     the hash of the key
+	 * @return the slot of the specified key, which may hold a tombstone, or the
+	 *         empty slot it should be put into if it is not in the table
+	 */
+	private int indexOf(Table table, K key, int h) {
+		Object[] keys = table.keys;
+		int mask = keys.length - 1;
+		int i = h & mask;
+		int d = doubleHash(h);
+
+		while (keys[i] != null) {
+			if (keys[i] == key || keys[i].equals(key)) {
+				return i;
+			}
+
+			i = (i + d) & mask;
+		}
+
+		return i;
+	}
+
+	/**
+	 * puts the value into the specified slot of the key, then rebuilds the
+	 * segment if it is too full. must be called while holding the lock of the
+	 * segment
+	 */
+	private void store(Segment segment, Table table, int i, K key, V value) {
+		Object oldValue = table.values[i];
+		SLOTS.setRelease(table.values, i, value);
+
+		if (oldValue != null && oldValue != TOMBSTONE) {
+			return;
+		}
+
+		segment.size++;
+
+		if (oldValue == null) {
+			// the value has to be visible before the key marks the slot as occupied
+			SLOTS.setRelease(table.keys, i, key);
+			segment.used++;
+
+			int capacity = table.keys.length;
+			if (segment.used << 1 > capacity) {
+				// only grow if the segment is not mostly tombstones
+				resize(segment, segment.size << 2 > capacity ? capacity << 1 : capacity);
+			}
+		}
+	}
+
+	/**
+	 * rehashes all entries of the segment into a new table without its
+	 * tombstones and publishes it. must be called while holding the lock of the
+	 * segment
+	 */
+	private void resize(Segment segment, int newCapacity) {
+		Table oldTable = segment.table;
+		Table table = new Table(newCapacity);
+		int mask = newCapacity - 1;
+
+		for (int i = 0; i < oldTable.keys.length; i++) {
+			Object value = oldTable.values[i];
+
+			if (value == null || value == TOMBSTONE) {
+				continue;
+			}
+
+			Object key = oldTable.keys[i];
+			int h = hash(key.hashCode());
+			int j = h & mask;
+			int d = doubleHash(h);
+
+			while (table.keys[j] != null) {
+				j = (j + d) & mask;
+			}
+
+			table.keys[j] = key;
+			table.values[j] = value;
+		}
+
+		segment.used = segment.size;
+		// the volatile write publishes the filled table to readers
+		segment.table = table;
+	}
+
+	/**
+	 * @return the number of key-value pairs in this map. writes that are in
+	 *         progress at the same time may or may not be counted
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			size += segment.size;
+		}
+		return size;
+	}
+
+	/**
+	 * clears this map of all keys and values. the segments are cleared one at a
+	 * time
+	 */
+	public void clear() {
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				segment.size = 0;
+				segment.used = 0;
+				segment.table = new Table(16);
+			}
+		}
+	}
+
+	/**
+	 * @param x
+	 * @return the hash used to pick the segment with its high bits and the first
+	 *         slot with its low bits
+	 */
+	protected int hash(int x) {
+		x *= 0x9e3779b9;
+		return x ^ (x >>> 16);
+	}
+
+	/**
+	 * @param x
+	 * @return the double hash function for this map
+	 */
+	protected int doubleHash(int x) {
+		x = (x + 0x7ed55d16) + (x << 12);
+		x = (x ^ 0xc761c23c) ^ (x >> 19);
+		x = (x + 0x165667b1) + (x << 5);
+		x = (x + 0xd3a2646c) ^ (x << 9);
+		x = (x + 0xfd7046c5) + (x << 3);
+		x = (x ^ 0xb55a4f09) ^ (x >> 16);
+		return (x & 1) == 1 ? x : (x << 1 | 1);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append('{');
+		boolean first = true;
+		for (Segment segment : segments) {
+			Table table = segment.table;
+
+			for (int i = 0; i < table.keys.length; i++) {
+				Object key = SLOTS.getAcquire(table.keys, i);
+
+				if (key == null) {
+					continue;
+				}
+
+				Object value = SLOTS.getAcquire(table.values, i);
+
+				if (value != TOMBSTONE) {
+					if (first) {
+						first = false;
+					} else {
+						sb.append(", ");
+					}
+
+					sb.append(key).append('=').append(value);
+				}
+			}
+		}
+		sb.append('}');
+		return sb.toString();
+	}
+}
@@ -0,0 +1,302 @@
+package com.dubiouscandle.candlelib.datastructures;
+
+import java.util.Iterator;
+
+/**
+ * a set that keeps its elements densely packed in {@link #items}, like a
+ * {@link Vector}, next to a hash table that maps each element to its index.
+ * iterating is a plain scan over the first {@link #size} items, with no empty
+ * slots or tombstones to skip, and removing moves the last element into the
+ * gap, the same way {@link Vector#removeUnordered(int)} does, so the order of
+ * the elements changes on removal. the table uses linear probing and shifts
+ * entries back on removal like {@link LinearUnorderedSet}, so it never needs
+ * rehashing. the hash codes are cached in dense order, so growing never calls
+ * hashCode. the behavior of null values is undefined.
+ * 
+ * @param <T> the type of the elements in the set
+ */
+public class DenseSet<T> implements Iterable<T> {
+	/**
+	 * the elements of this set, at indices 0 to {@link #size} - 1. do not modify
+	 * this array!
+	 */
+	public T[] items;
+
+	/**
+	 * the hash codes of the elements, in the same order as {@link #items}. do not
+	 * modify this array!
+	 */
+	public int[] hashes;
+
+	/**
+	 * the number of elements in this set. do not change this value!
+	 */
+	public int size;
+
+	/**
+	 * the index of every element in {@link #items} plus one, at the slot of the
+	 * element in the hash table. empty slots hold 0
+	 */
+	private int[] table;
+
+	@SuppressWarnings("unchecked")
+	public DenseSet() {
+		items = (T[]) new Object[8];
+		hashes = new int[8];
+		table = new int[16];
+		size = 0;
+	}
+
+	/**
+	 * adds the specified element to this set, at the end of {@link #items}
+	 * 
+	 * @param e
+	 * @return true if the element was added (the element was not already in the
+	 *         set)
+	 */
+	public boolean add(T e) {
+		int h = e.hashCode();
+		int mask = table.length - 1;
+		int i = hash(h) & mask;
+
+		while (table[i] != 0) {
+			int j = table[i] - 1;
+
+			if (hashes[j] == h && e.equals(items[j])) {
+				return false;
+			}
+
+			i = (i + 1) & mask;
+		}
+
+		if (size == items.length) {
+			growItems();
+		}
+
+		items[size] = e;
+		hashes[size] = h;
+		size++;
+		table[i] = size;
+
+		if (size << 1 > table.length) {
+			resizeTable(table.length << 1);
+		}
+		return true;
+	}
+
+	/**
+	 * @param e
+	 * @return the index of the specified element in {@link #items}, or -1 if it is
+	 *         not in this set
+	 */
+	public int indexOf(T e) {
+		int h = e.hashCode();
+		int mask = table.length - 1;
+		int i = hash(h) & mask;
+
+		while (table[i] != 0) {
+			int j = table[i] - 1;
+
+			if (hashes[j] == h && e.equals(items[j])) {
+				return j;
+			}
+
+			i = (i + 1) & mask;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * 
+	 * @param e
+	 * @return if this set contains e
+	 */
+	public boolean contains(T e) {
+		return indexOf(e) != -1;
+	}
+
+	/**
+	 * @param index
+	 * @return the element at the specified index of {@link #items}
+	 */
+	public T get(int index) {
+		return items[index];
+	}
+
+	/**
+	 * removes the specified element from this set. the last element of
+	 * {@link #items} takes its place
+	 * 
+	 * @param e
+	 * @return true if the element was removed (the element was in this set before)
+	 */
+	public boolean remove(T e) {
+		int index = indexOf(e);
+
+		if (index == -1) {
+			return false;
+		}
+
+		removeAt(index);
+		return true;
+	}
+
+	/**
+	 * removes the element at the specified index of {@link #items} by overwriting
+	 * it with the last element
+	 * 
+	 * @param index
+	 * @return the removed element
+	 */
+	public T removeAt(int index) {
+		T removed = items[index];
+		shiftBack(slotOf(index));
+
+		size--;
+
+		if (index != size) {
+			// the last element moves into the gap, so its slot has to point there
+			table[slotOf(size)] = index + 1;
+			items[index] = items[size];
+			hashes[index] = hashes[size];
+		}
+
+		items[size] = null;
+		return removed;
+	}
+
+	/**
+	 * @param index an index of {@link #items}
+	 * @return the slot of the table that holds the specified index
+	 */
+	private int slotOf(int index) {
+		int mask = table.length - 1;
+		int i = hash(hashes[index]) & mask;
+
+		while (table[i] != index + 1) {
+			i = (i + 1) & mask;
+		}
+
+		return i;
+	}
+
+	/**
+	 * fills the gap at the specified slot by moving back every following entry of
+	 * the probe chain that is allowed to sit there
+	 * 
+	 * @param gap the slot of the removed element
+	 */
+	private void shiftBack(int gap) {
+		int mask = table.length - 1;
+		int i = (gap + 1) & mask;
+
+		while (table[i] != 0) {
+			int home = hash(hashes[table[i] - 1]) & mask;
+
+			// the entry may move to the gap if the gap lies between its home and its slot
+			if (((i - home) & mask) >= ((i - gap) & mask)) {
+				table[gap] = table[i];
+				gap = i;
+			}
+
+			i = (i + 1) & mask;
+		}
+
+		table[gap] = 0;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void growItems() {
+		Object[] resized = new Object[items.length << 1];
+		System.arraycopy(items, 0, resized, 0, size);
+		items = (T[]) resized;
+
+		int[] resizedHashes = new int[hashes.length << 1];
+		System.arraycopy(hashes, 0, resizedHashes, 0, size);
+		hashes = resizedHashes;
+	}
+
+	/**
+	 * rebuilds the table from the cached hash codes
+	 * 
+	 * @param newSize the new size of the table. this value should be a power of 2
+	 */
+	private void resizeTable(int newSize) {
+		table = new int[newSize];
+		int mask = newSize - 1;
+
+		for (int j = 0; j < size; j++) {
+			int i = hash(hashes[j]) & mask;
+
+			while (table[i] != 0) {
+				i = (i + 1) & mask;
+			}
+
+			table[i] = j + 1;
+		}
+	}
+
+	/**
+	 * @param x
+	 * @return the hash function for this set. linear probing needs the low bits of
+	 *         the hash to depend on every bit of the hash code
+	 */
+	protected int hash(int x) {
+		x *= 0x9e3779b9;
+		return x ^ (x >>> 16);
+	}
+
+	/**
+	 * clears this set of all elements
+	 */
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			items[i] = null;
+		}
+		for (int i = 0; i < table.length; i++) {
+			table[i] = 0;
+		}
+		size = 0;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append('[');
+		for (int i = 0; i < size; i++) {
+			if (i > 0) {
+				sb.append(',').append(' ');
+			}
+			sb.append(items[i]);
+		}
+		sb.append(']');
+		return sb.toString();
+	}
+
+	/**
+	 * returns a new iterator for this set. removing through the iterator moves the
+	 * last element into the removed one's place, and the iterator visits it next
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		return new Iterator<T>() {
+			private int i = 0;
+
+			@Override
+			public boolean hasNext() {
+				return i < size;
+			}
+
+			@Override
+			public T next() {
+				return items[i++];
+			}
+
+			@Override
+			public void remove() {
+				removeAt(--i);
+			}
+		};
+	}
+}
@@ -53,7 +53,7 @@ public class Deque<T> {
 	 * @param e
 	 */
 	public void push(final T e) {
-		if (head == tail + 1) {
+		if (head == ((tail + 1) & (buffer.length - 1))) {
 			resize();
 		}
 
@@ -91,7 +91,7 @@ public class Deque<T> {
 	 * @param e
 	 */
 	public void append(final T e) {
-		if (head == tail + 1) {
+		if (head == ((tail + 1) & (buffer.length - 1))) {
 			resize();
 		}
 
@@ -0,0 +1,115 @@
+package com.dubiouscandle.candlelib.datastructures;
+
+import java.util.Arrays;
+
+/**
+ * a count-min sketch of 4 bit counters that estimates how often each hash code
+ * was seen recently. every hash code has one counter in each of 4 rows, chosen
+ * with the double hash of the hash code the same way the tables probe, and its
+ * frequency is the smallest of them. only the smallest counters are
+ * incremented, which keeps the estimates of rare hash codes low. once the
+ * number of increments reaches the sample size, every counter is halved, so
+ * old popularity fades.
+ */
+final class FrequencySketch {
+	private static final int ROWS = 4;
+	private static final int MAX_COUNT = 15;
+	private static final long HALF_MASK = 0x7777777777777777L;
+
+	/**
+	 * 16 counters per long. row r holds the counters from r * width to
+	 * (r + 1) * width - 1
+	 */
+	private final long[] table;
+	private final int rowMask;
+	private final int rowShift;
+	private final int sampleSize;
+	private int additions;
+
+	/**
+	 * @param maxSize the number of distinct hash codes that are expected to be
+	 *                tracked at once
+	 */
+	FrequencySketch(int maxSize) {
+		int width = 16;
+		while (width < maxSize) {
+			width <<= 1;
+		}
+
+		table = new long[width * ROWS / 16];
+		rowMask = width - 1;
+		rowShift = Integer.numberOfTrailingZeros(width);
+		sampleSize = (int) Math.min(10L * Math.max(maxSize, 16), Integer.MAX_VALUE);
+	}
+
+	/**
+	 * @param hashCode
+	 * @return the estimated number of times the hash code was seen, at most 15
+	 */
+	int frequency(int hashCode) {
+		int d = doubleHash(hashCode);
+		int min = MAX_COUNT;
+
+		for (int r = 0; r < ROWS; r++) {
+			min = Math.min(min, count(counter(hashCode, d, r)));
+		}
+
+		return min;
+	}
+
+	/**
+	 * records that the hash code was seen once more
+	 * 
+	 * @param hashCode
+	 */
+	void increment(int hashCode) {
+		int d = doubleHash(hashCode);
+		int min = frequency(hashCode);
+
+		if (min == MAX_COUNT) {
+			return;
+		}
+
+		for (int r = 0; r < ROWS; r++) {
+			int c = counter(hashCode, d, r);
+
+			if (count(c) == min) {
+				table[c >>> 4] += 1L << ((c & 15) << 2);
+			}
+		}
+
+		if (++additions == sampleSize) {
+			halve();
+		}
+	}
+
+	void clear() {
+		Arrays.fill(table, 0);
+		additions = 0;
+	}
+
+	private void halve() {
+		for (int i = 0; i < table.length; i++) {
+			table[i] = (table[i] >>> 1) & HALF_MASK;
+		}
+		additions >>>= 1;
+	}
+
+	private int counter(int hashCode, int d, int row) {
+		return row << rowShift | ((hashCode + row * d) & rowMask);
+	}
+
+	private int count(int c) {
+		return (int) (table[c >>> 4] >>> ((c & 15) << 2)) & MAX_COUNT;
+	}
+
+	private static int doubleHash(int x) {
+		x = (x + 0x7ed55d16) + (x << 12);
+		x = (x ^ 0xc761c23c) ^ (x >> 19);
+		x = (x + 0x165667b1) + (x << 5);
+		x = (x + 0xd3a2646c) ^ (x << 9);
+		x = (x + 0xfd7046c5) + (x << 3);
+		x = (x ^ 0xb55a4f09) ^ (x >> 16);
+		return (x & 1) == 1 ? x : (x << 1 | 1);
+	}
+}
@@ -0,0 +1,99 @@
+package com.dubiouscandle.candlelib.datastructures;
+
+/**
+ * An immutable int to int map built by {@link IntIntMap#freeze()}. The keys are
+ * placed with a minimal perfect hash function, so the table has exactly one
+ * slot per entry, and a lookup reads one pilot and then exactly one slot, which
+ * packs the key and the value into a long. There is no probing and there are
+ * no tombstones.
+ * <p>
+ * all of its state is built inside the constructor and reached through final
+ * fields, so a frozen map can be shared between threads without
+ * synchronization.
+ */
+public final class FrozenIntIntMap {
+	/**
+	 * the return value of {@link #get(int)} for keys that are not in this map
+	 */
+	public final int defaultValue;
+
+	/**
+	 * the number of key-value pairs in this map
+	 */
+	public final int size;
+
+	private final PerfectHash hash;
+	/**
+	 * the key and value of every slot, packed as key << 32 | value
+	 */
+	private final long[] entries;
+
+	/**
+	 * @param map the map to copy. this finishes any incremental resize of the map
+	 *            in progress
+	 */
+	public FrozenIntIntMap(IntIntMap map) {
+		map.finishResize();
+
+		defaultValue = map.defaultValue;
+		size = map.size;
+
+		int[] keys = new int[size];
+		int[] values = new int[size];
+		for (int i = 0, j = 0; i < map.status.length; i++) {
+			if (map.status[i] == IntIntMap.OCCUPIED) {
+				keys[j] = map.keys[i];
+				values[j] = map.values[i];
+				j++;
+			}
+		}
+
+		hash = new PerfectHash(keys);
+		entries = new long[Math.max(size, 1)];
+
+		for (int i = 0; i < size; i++) {
+			entries[hash.slots[i]] = (long) keys[i] << 32 | (values[i] & 0xffffffffL);
+		}
+		hash.slots = null;
+	}
+
+	/**
+	 * @param key
+	 * @return the value associated with the specified key, or {@link #defaultValue}
+	 *         if there is none
+	 */
+	public int get(int key) {
+		if (size == 0) {
+			return defaultValue;
+		}
+
+		long entry = entries[hash.slotOf(key)];
+		return (int) (entry >>> 32) == key ? (int) entry : defaultValue;
+	}
+
+	public boolean containsKey(int key) {
+		return size != 0 && (int) (entries[hash.slotOf(key)] >>> 32) == key;
+	}
+
+	/**
+	 * @return the number of bytes of the arrays of this map
+	 */
+	public long memoryFootprintBytes() {
+		return (long) entries.length * Long.BYTES + (long) (hash.pilots.length + hash.remap.length) * Integer.BYTES;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append('{');
+		for (int i = 0; i < size; i++) {
+			if (i > 0) {
+				sb.append(", ");
+			}
+
+			sb.append((int) (entries[i] >>> 32)).append('=').append((int) entries[i]);
+		}
+		sb.append('}');
+		return sb.toString();
+	}
+}
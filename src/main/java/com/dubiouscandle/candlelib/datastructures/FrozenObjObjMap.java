@@ -0,0 +1,155 @@
+package com.dubiouscandle.candlelib.datastructures;
+
+/**
+ * An immutable Object to Object map built by {@link ObjObjMap#freeze()}. The
+ * keys are placed with a minimal perfect hash function of the hash codes the
+ * {@link HashingStrategy} of the map gives them, so the table has exactly one
+ * slot per entry, and a lookup reads one pilot and then exactly one slot, which
+ * holds the key next to its value. There is no probing and there are no
+ * tombstones.
+ * <p>
+ * a perfect hash function can not separate keys with equal hash codes, so
+ * those keys are kept in a small {@link ObjObjMap} that is only searched when
+ * the slot of a key does not match. all of its state is built inside the
+ * constructor and reached through final fields, so a frozen map can be shared
+ * between threads without synchronization.
+ */
+public final class FrozenObjObjMap<K, V> {
+	/**
+	 * the number of key-value pairs in this map
+	 */
+	public final int size;
+
+	private final PerfectHash hash;
+	/**
+	 * the key of every slot at index 2 * slot, followed by its value
+	 */
+	private final Object[] table;
+	/**
+	 * the keys whose hash code is shared with another key, or null if there are
+	 * none
+	 */
+	private final ObjObjMap<K, V> overflow;
+	/**
+	 * the hashing strategy of the map this was built from
+	 */
+	private final HashingStrategy<? super K> strategy;
+
+	/**
+	 * @param map the map to copy. this finishes any incremental resize of the map
+	 *            in progress
+	 */
+	public FrozenObjObjMap(ObjObjMap<K, V> map) {
+		map.finishResize();
+
+		size = map.size;
+		strategy = map.hashingStrategy();
+
+		IntIntMap hashCodeCounts = new IntIntMap();
+		for (int i = 0; i < map.values.length; i++) {
+			if (map.values[i] != null && map.values[i] != ObjObjMap.TOMBSTONE) {
+				hashCodeCounts.addTo(strategy.hashCode(map.keys[i]), 1);
+			}
+		}
+
+		int unique = 0;
+		for (int i = 0; i < hashCodeCounts.status.length; i++) {
+			if (hashCodeCounts.status[i] == IntIntMap.OCCUPIED && hashCodeCounts.values[i] == 1) {
+				unique++;
+			}
+		}
+
+		int[] hashCodes = new int[unique];
+		Object[] keys = new Object[unique];
+		Object[] values = new Object[unique];
+		ObjObjMap<K, V> overflow = null;
+
+		for (int i = 0, j = 0; i < map.values.length; i++) {
+			if (map.values[i] == null || map.values[i] == ObjObjMap.TOMBSTONE) {
+				continue;
+			}
+
+			int h = strategy.hashCode(map.keys[i]);
+
+			if (hashCodeCounts.get(h) == 1) {
+				hashCodes[j] = h;
+				keys[j] = map.keys[i];
+				values[j] = map.values[i];
+				j++;
+			} else {
+				if (overflow == null) {
+					overflow = new ObjObjMap<>(strategy);
+				}
+				overflow.put(map.keys[i], map.values[i]);
+			}
+		}
+
+		this.overflow = overflow;
+		hash = new PerfectHash(hashCodes);
+		table = new Object[Math.max(unique, 1) << 1];
+
+		for (int i = 0; i < unique; i++) {
+			int slot = hash.slots[i] << 1;
+			table[slot] = keys[i];
+			table[slot + 1] = values[i];
+		}
+		hash.slots = null;
+	}
+
+	/**
+	 * @param key
+	 * @return the value associated with the specified key, or null if there is none
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(K key) {
+		if (hash.n != 0) {
+			int slot = hash.slotOf(strategy.hashCode(key)) << 1;
+
+			if (strategy.equals(key, (K) table[slot])) {
+				return (V) table[slot + 1];
+			}
+		}
+
+		return overflow == null ? null : overflow.get(key);
+	}
+
+	@SuppressWarnings("unchecked")
+	public boolean containsKey(K key) {
+		if (hash.n != 0 && strategy.equals(key, (K) table[hash.slotOf(strategy.hashCode(key)) << 1])) {
+			return true;
+		}
+
+		return overflow != null && overflow.containsKey(key);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append('{');
+		boolean first = true;
+		for (int i = 0; i < hash.n; i++) {
+			if (first) {
+				first = false;
+			} else {
+				sb.append(", ");
+			}
+
+			sb.append(table[i << 1]).append('=').append(table[(i << 1) + 1]);
+		}
+		if (overflow != null) {
+			for (int i = 0; i < overflow.keys.length; i++) {
+				if (overflow.values[i] != null && overflow.values[i] != ObjObjMap.TOMBSTONE) {
+					if (first) {
+						first = false;
+					} else {
+						sb.append(", ");
+					}
+
+					sb.append(overflow.keys[i]).append('=').append(overflow.values[i]);
+				}
+			}
+		}
+		sb.append('}');
+		return sb.toString();
+	}
+}
@@ -0,0 +1,54 @@
+package com.dubiouscandle.candlelib.datastructures;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * the JFR event of a resize or rehash of {@link IntIntMap} and the other
+ * primitive maps, {@link ObjObjMap} or {@link UnorderedSet}. it is emitted
+ * whenever the event is enabled in the recording, independent of
+ * {@link HashStats}.
+ * <p>
+ * with a resizeStep greater than 0 a resize only rehashes the first slots of
+ * the old table, and the rest are moved by the following operations. the
+ * duration then covers only that first migration step.
+ */
+@Name("com.dubiouscandle.candlelib.HashResize")
+@Label("Hash Table Resize")
+@Category("candlelib")
+@Description("A hash table grew or was rehashed")
+class HashResizeEvent extends Event {
+	@Label("Table Class")
+	String tableClass;
+
+	@Label("Old Capacity")
+	int oldCapacity;
+
+	@Label("New Capacity")
+	int newCapacity;
+
+	@Label("Size")
+	int size;
+
+	@Label("Duration")
+	@Timespan(Timespan.NANOSECONDS)
+	long nanos;
+
+	/**
+	 * fills in and commits this event if it is enabled
+	 */
+	void commit(Object table, int oldCapacity, int newCapacity, int size, long nanos) {
+		if (isEnabled()) {
+			this.tableClass = table.getClass().getName();
+			this.oldCapacity = oldCapacity;
+			this.newCapacity = newCapacity;
+			this.size = size;
+			this.nanos = nanos;
+			commit();
+		}
+	}
+}
@@ -0,0 +1,120 @@
+package com.dubiouscandle.candlelib.datastructures;
+
+import java.util.Arrays;
+
+/**
+ * statistics about one of the open addressing hash tables, enabled with
+ * {@link IntIntMap#enableStats()} and the same method of the other primitive
+ * maps, {@link ObjObjMap#enableStats()} or {@link UnorderedSet#enableStats()}.
+ * resizes and rehashes are recorded as they happen, and the table statistics
+ * are brought up to date by the stats() method of the table, which scans every
+ * slot.
+ * <p>
+ * the {@code com.dubiouscandle.candlelib.HashResize} JFR event of every resize
+ * and rehash is emitted by the table itself, whether statistics are enabled or
+ * not, see {@link HashResizeEvent}.
+ */
+public class HashStats {
+	/**
+	 * the number of buckets of {@link #probeLengths}
+	 */
+	public static final int PROBE_BUCKETS = 32;
+
+	/**
+	 * the number of times the table grew or shrank
+	 */
+	public int resizes;
+	/**
+	 * the total time spent growing or shrinking the table. with an incremental
+	 * resize this only includes the slots rehashed by the call that started it
+	 */
+	public long resizeNanos;
+	/**
+	 * the number of times the table was rehashed without changing its capacity
+	 */
+	public int rehashes;
+	/**
+	 * the total time spent rehashing the table without changing its capacity
+	 */
+	public long rehashNanos;
+
+	/**
+	 * the number of slots of the table at the last scan
+	 */
+	public int capacity;
+	/**
+	 * the number of live entries at the last scan
+	 */
+	public int size;
+	/**
+	 * the number of tombstones in the table at the last scan
+	 */
+	public int tombstones;
+	/**
+	 * the number of live entries at the last scan that are found by a probe of
+	 * i + 1 slots, at index i. the last bucket also counts all longer probes. the
+	 * entries still in the old table of an incremental resize are not counted
+	 */
+	public final int[] probeLengths = new int[PROBE_BUCKETS];
+
+	/**
+	 * @return the fraction of the slots holding live entries
+	 */
+	public double loadFactor() {
+		return capacity == 0 ? 0 : (double) size / capacity;
+	}
+
+	/**
+	 * @return the fraction of the slots holding tombstones
+	 */
+	public double tombstoneRatio() {
+		return capacity == 0 ? 0 : (double) tombstones / capacity;
+	}
+
+	/**
+	 * @return the average number of slots a successful lookup probes
+	 */
+	public double averageProbeLength() {
+		long entries = 0;
+		long probes = 0;
+		for (int i = 0; i < PROBE_BUCKETS; i++) {
+			entries += probeLengths[i];
+			probes += (long) probeLengths[i] * (i + 1);
+		}
+		return entries == 0 ? 0 : (double) probes / entries;
+	}
+
+	/**
+	 * resets the table statistics before a scan
+	 */
+	void beginScan(int capacity, int size) {
+		this.capacity = capacity;
+		this.size = size;
+		tombstones = 0;
+		Arrays.fill(probeLengths, 0);
+	}
+
+	void addProbeLength(int probes) {
+		probeLengths[Math.min(probes, PROBE_BUCKETS) - 1]++;
+	}
+
+	/**
+	 * records a resize or rehash that took the specified time
+	 */
+	void resized(int oldCapacity, int newCapacity, long nanos) {
+		if (oldCapacity == newCapacity) {
+			rehashes++;
+			rehashNanos += nanos;
+		} else {
+			resizes++;
+			resizeNanos += nanos;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "HashStats[size=" + size + ", capacity=" + capacity + ", tombstones=" + tombstones
+				+ ", averageProbeLength=" + averageProbeLength() + ", resizes=" + resizes + ", resizeNanos="
+				+ resizeNanos + ", rehashes=" + rehashes + ", rehashNanos=" + rehashNanos + "]";
+	}
+}
@@ -0,0 +1,60 @@
+package com.dubiouscandle.candlelib.datastructures;
+
+/**
+ * decides how {@link ObjObjMap} and {@link UnorderedSet} hash and compare their
+ * keys, in place of the hashCode and equals methods of the keys themselves.
+ * this lets a table use keys whose own methods are slow or poorly distributed,
+ * such as arrays compared by content, without wrapping every key.
+ * <p>
+ * a strategy has to give equal hash codes to keys it considers equal. the
+ * tables take the low bits of the hash code as the first slot, so hash codes
+ * should differ in their low bits.
+ * 
+ * @param <T> the type of the keys
+ */
+public interface HashingStrategy<T> {
+	/**
+	 * uses the hashCode and equals methods of the keys. this is what the tables
+	 * use when no strategy is given
+	 */
+	HashingStrategy<Object> DEFAULT = new HashingStrategy<>() {
+		@Override
+		public int hashCode(Object o) {
+			return o.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object a, Object b) {
+			return a.equals(b);
+		}
+	};
+
+	/**
+	 * compares keys by reference, using {@link System#identityHashCode(Object)}
+	 * and ==
+	 */
+	HashingStrategy<Object> IDENTITY = new HashingStrategy<>() {
+		@Override
+		public int hashCode(Object o) {
+			return System.identityHashCode(o);
+		}
+
+		@Override
+		public boolean equals(Object a, Object b) {
+			return a == b;
+		}
+	};
+
+	/**
+	 * @param o
+	 * @return the hash code of the key
+	 */
+	int hashCode(T o);
+
+	/**
+	 * @param a
+	 * @param b
+	 * @return true if the keys are equal
+	 */
+	boolean equals(T a, T b);
+}
@@ -0,0 +1,91 @@
+package com.dubiouscandle.candlelib.datastructures;
+
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+
+/**
+ * a spliterator over the occupied slots of an open addressing table of ints
+ * with a status array, such as the keys or the values of an {@link IntIntMap}.
+ * it splits the table by index range, so the halves are found without touching
+ * any slot. only the spliterator of the whole table knows its exact size, the
+ * halves estimate theirs as half of it.
+ */
+final class IntSlotSpliterator implements Spliterator.OfInt {
+	private final int[] items;
+	private final int[] status;
+	private int index;
+	private final int fence;
+	private long estimate;
+	private int characteristics;
+
+	/**
+	 * @param items           the items to iterate
+	 * @param status          the status of every slot
+	 * @param size            the number of occupied slots
+	 * @param characteristics the characteristics of the items besides
+	 *                        {@link Spliterator#SIZED}
+	 */
+	IntSlotSpliterator(int[] items, int[] status, int size, int characteristics) {
+		this(items, status, 0, status.length, size, characteristics | SIZED);
+	}
+
+	private IntSlotSpliterator(int[] items, int[] status, int index, int fence, long estimate, int characteristics) {
+		this.items = items;
+		this.status = status;
+		this.index = index;
+		this.fence = fence;
+		this.estimate = estimate;
+		this.characteristics = characteristics;
+	}
+
+	@Override
+	public boolean tryAdvance(IntConsumer action) {
+		while (index < fence) {
+			int i = index++;
+
+			if (status[i] == IntIntMap.OCCUPIED) {
+				action.accept(items[i]);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public void forEachRemaining(IntConsumer action) {
+		int[] items = this.items;
+		int[] status = this.status;
+
+		for (int i = index; i < fence; i++) {
+			if (status[i] == IntIntMap.OCCUPIED) {
+				action.accept(items[i]);
+			}
+		}
+		index = fence;
+	}
+
+	@Override
+	public Spliterator.OfInt trySplit() {
+		int lo = index;
+		int mid = (lo + fence) >>> 1;
+
+		if (lo >= mid) {
+			return null;
+		}
+
+		index = mid;
+		estimate >>>= 1;
+		characteristics &= ~SIZED;
+		return new IntSlotSpliterator(items, status, lo, mid, estimate, characteristics);
+	}
+
+	@Override
+	public long estimateSize() {
+		return estimate;
+	}
+
+	@Override
+	public int characteristics() {
+		return characteristics;
+	}
+}
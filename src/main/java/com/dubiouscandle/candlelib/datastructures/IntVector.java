@@ -1,5 +1,10 @@
 package com.dubiouscandle.candlelib.datastructures;
 
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
 /**
  * No checks are performed for bounds or null values in this class. It is the
  * responsibility of the user to ensure: - Array indices are within bounds (0 <=
@@ -80,6 +85,28 @@ public class IntVector {
 		size = 0;
 	}
 
+	/**
+	 * @return a spliterator over the items of this vector that splits by index
+	 *         range, so every part knows its exact size
+	 */
+	public Spliterator.OfInt spliterator() {
+		return Spliterators.spliterator(items, 0, size, Spliterator.ORDERED);
+	}
+
+	/**
+	 * @return a sequential stream of the items of this vector
+	 */
+	public IntStream stream() {
+		return StreamSupport.intStream(spliterator(), false);
+	}
+
+	/**
+	 * @return a parallel stream of the items of this vector
+	 */
+	public IntStream parallelStream() {
+		return StreamSupport.intStream(spliterator(), true);
+	}
+
 	@Override
 	public String toString() {
 		if (size == 0) {
@@ -0,0 +1,283 @@
+package com.dubiouscandle.candlelib.datastructures;
+
+import com.dubiouscandle.candlelib.function.IntIntConsumer;
+import com.dubiouscandle.candlelib.function.IntIntPredicate;
+
+/**
+ * An int to int map implemented using open addressing and linear probing.
+ * Unlike {@link IntIntMap}, removal shifts the following entries of the probe
+ * chain back instead of leaving a tombstone, so putting and contains checking
+ * stay fast after any number of removals and no manual rehashing is ever
+ * necessary.
+ */
+public class LinearIntIntMap {
+	/**
+	 * the default return value in {@link #remove(int)}, {@link #put(int, int)}, and
+	 * {@link #get(int)}
+	 */
+	public int defaultValue;
+	/**
+	 * the keys of this map for convenient iteration. do not modify this array!
+	 */
+	public int[] keys;
+
+	/**
+	 * the values of this map for convenient iteration. do not modify this array!
+	 */
+	public int[] values;
+
+	/**
+	 * whether each slot of this map holds a key-value pair, for convenient
+	 * iteration. do not modify this array!
+	 */
+	public boolean[] occupied;
+
+	/**
+	 * the number of key-value pairs in this map. do not modify this field!
+	 */
+	public int size;
+
+	public LinearIntIntMap() {
+		size = 0;
+		keys = new int[16];
+		values = new int[16];
+		occupied = new boolean[16];
+	}
+
+	/**
+	 * @param key
+	 * @return the value associated with the specified key, or {@link #defaultValue}
+	 *         if there is none
+	 */
+	public int get(int key) {
+		int mask = values.length - 1;
+		int i = hash(key) & mask;
+
+		while (occupied[i]) {
+			if (keys[i] == key) {
+				return values[i];
+			}
+
+			i = (i + 1) & mask;
+		}
+
+		return defaultValue;
+	}
+
+	/**
+	 * removes the specified key and its associated value from this map
+	 * 
+	 * @param key
+	 * @return the value that was associated with the specified key, or
+	 *         {@link #defaultValue} if there was none
+	 */
+	public int remove(int key) {
+		int mask = values.length - 1;
+		int i = hash(key) & mask;
+
+		while (occupied[i]) {
+			if (keys[i] == key) {
+				int oldValue = values[i];
+				shiftBack(i);
+				size--;
+				return oldValue;
+			}
+
+			i = (i + 1) & mask;
+		}
+
+		return defaultValue;
+	}
+
+	/**
+	 * puts the key value pair into this map
+	 * 
+	 * @param key
+	 * @param value
+	 * @return the overwritten value, or {@link #defaultValue} if there was none
+	 */
+	public int put(int key, int value) {
+		int mask = values.length - 1;
+		int i = hash(key) & mask;
+
+		while (occupied[i]) {
+			if (keys[i] == key) {
+				int oldValue = values[i];
+				values[i] = value;
+				return oldValue;
+			}
+
+			i = (i + 1) & mask;
+		}
+
+		keys[i] = key;
+		values[i] = value;
+		occupied[i] = true;
+		size++;
+		if (size << 1 > values.length) {
+			resize(values.length << 1);
+		}
+		return defaultValue;
+	}
+
+	public boolean containsKey(int key) {
+		int mask = values.length - 1;
+		int i = hash(key) & mask;
+
+		while (occupied[i]) {
+			if (keys[i] == key) {
+				return true;
+			}
+
+			i = (i + 1) & mask;
+		}
+
+		return false;
+	}
+
+	/**
+	 * fills the gap at the specified slot by moving back every following entry of
+	 * the probe chain that is allowed to sit there
+	 * 
+	 * @param gap the slot of the removed entry
+	 */
+	private void shiftBack(int gap) {
+		int mask = values.length - 1;
+		int i = (gap + 1) & mask;
+
+		while (occupied[i]) {
+			int home = hash(keys[i]) & mask;
+
+			// the entry may move to the gap if the gap lies between its home and its slot
+			if (((i - home) & mask) >= ((i - gap) & mask)) {
+				keys[gap] = keys[i];
+				values[gap] = values[i];
+				gap = i;
+			}
+
+			i = (i + 1) & mask;
+		}
+
+		occupied[gap] = false;
+	}
+
+	/**
+	 * @param x
+	 * @return the hash function for this map. linear probing needs the low bits of
+	 *         the hash to depend on every bit of the key
+	 */
+	protected int hash(int x) {
+		x *= 0x9e3779b9;
+		return x ^ (x >>> 16);
+	}
+
+	/**
+	 * clears this map of all keys and values
+	 */
+	public void clear() {
+		size = 0;
+		for (int i = 0; i < occupied.length; i++) {
+			occupied[i] = false;
+		}
+	}
+
+	/**
+	 * resized and rehashes all keys and values in this map
+	 * 
+	 * @param newSize the new size of the underlying map. this value should be a
+	 *                power of 2
+	 */
+	private void resize(int newSize) {
+		int[] oldKeys = keys;
+		int[] oldValues = values;
+		boolean[] oldOccupied = occupied;
+
+		values = new int[newSize];
+		keys = new int[newSize];
+		occupied = new boolean[newSize];
+
+		int mask = newSize - 1;
+
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (!oldOccupied[i]) {
+				continue;
+			}
+
+			int key = oldKeys[i];
+			int j = hash(key) & mask;
+
+			while (occupied[j]) {
+				j = (j + 1) & mask;
+			}
+
+			occupied[j] = true;
+			keys[j] = key;
+			values[j] = oldValues[i];
+		}
+	}
+
+	/**
+	 * performs the specified action on every entry of this map
+	 * 
+	 * @param action
+	 */
+	public void forEach(IntIntConsumer action) {
+		for (int i = 0; i < occupied.length; i++) {
+			if (occupied[i]) {
+				action.accept(keys[i], values[i]);
+			}
+		}
+	}
+
+	/**
+	 * removes every entry for which the specified filter returns true. the scan
+	 * starts after an empty slot, so the entries that a removal shifts back into
+	 * the scanned slot have not been tested yet
+	 * 
+	 * @param filter
+	 * @return the number of removed entries
+	 */
+	public int removeIf(IntIntPredicate filter) {
+		int mask = occupied.length - 1;
+		int start = 0;
+		// there is always an empty slot, since the table is at most half full
+		while (occupied[start]) {
+			start++;
+		}
+
+		int removed = 0;
+		int i = (start + 1) & mask;
+
+		while (i != start) {
+			if (occupied[i] && filter.test(keys[i], values[i])) {
+				shiftBack(i);
+				size--;
+				removed++;
+			} else {
+				i = (i + 1) & mask;
+			}
+		}
+
+		return removed;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append('{');
+		boolean first = true;
+		for (int i = 0; i < keys.length; i++) {
+			if (occupied[i]) {
+				if (first) {
+					first = false;
+				} else {
+					sb.append(", ");
+				}
+
+				sb.append(keys[i]).append('=').append(values[i]);
+			}
+		}
+		sb.append('}');
+		return sb.toString();
+	}
+}
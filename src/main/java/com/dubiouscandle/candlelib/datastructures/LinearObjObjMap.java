@@ -0,0 +1,271 @@
+package com.dubiouscandle.candlelib.datastructures;
+
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+
+/**
+ * An Object to Object map implemented using open addressing and linear
+ * probing. Unlike {@link ObjObjMap}, removal shifts the following entries of
+ * the probe chain back instead of leaving a tombstone, so putting and contains
+ * checking stay fast after any number of removals and no manual rehashing is
+ * ever necessary. the behavior of null keys is undefined.
+ */
+public class LinearObjObjMap<K, V> {
+	/**
+	 * the keys of this map for convenient iteration. empty slots hold null. do not
+	 * modify this array!
+	 */
+	public K[] keys;
+
+	/**
+	 * the values of this map for convenient iteration. do not modify this array!
+	 */
+	public V[] values;
+
+	/**
+	 * the number of key-value pairs in this map. do not modify this field!
+	 */
+	public int size;
+
+	@SuppressWarnings("unchecked")
+	public LinearObjObjMap() {
+		size = 0;
+		keys = (K[]) new Object[16];
+		values = (V[]) new Object[16];
+	}
+
+	/**
+	 * @param key
+	 * @return the value associated with the specified key, or null if there is none
+	 */
+	public V get(K key) {
+		int mask = keys.length - 1;
+		int i = hash(key.hashCode()) & mask;
+
+		while (keys[i] != null) {
+			if (keys[i].equals(key)) {
+				return values[i];
+			}
+
+			i = (i + 1) & mask;
+		}
+
+		return null;
+	}
+
+	/**
+	 * removes the specified key and its associated value from this map
+	 * 
+	 * @param key
+	 * @return the value that was associated with the specified key, or null if
+	 *         there was none
+	 */
+	public V remove(K key) {
+		int mask = keys.length - 1;
+		int i = hash(key.hashCode()) & mask;
+
+		while (keys[i] != null) {
+			if (keys[i].equals(key)) {
+				V oldValue = values[i];
+				shiftBack(i);
+				size--;
+				return oldValue;
+			}
+
+			i = (i + 1) & mask;
+		}
+
+		return null;
+	}
+
+	/**
+	 * puts the key value pair into this map
+	 * 
+	 * @param key
+	 * @param value
+	 * @return the overwritten value, or null if there was none
+	 */
+	public V put(K key, V value) {
+		int mask = keys.length - 1;
+		int i = hash(key.hashCode()) & mask;
+
+		while (keys[i] != null) {
+			if (keys[i].equals(key)) {
+				V oldValue = values[i];
+				values[i] = value;
+				return oldValue;
+			}
+
+			i = (i + 1) & mask;
+		}
+
+		keys[i] = key;
+		values[i] = value;
+		size++;
+		if (size << 1 > keys.length) {
+			resize(keys.length << 1);
+		}
+		return null;
+	}
+
+	public boolean containsKey(K key) {
+		int mask = keys.length - 1;
+		int i = hash(key.hashCode()) & mask;
+
+		while (keys[i] != null) {
+			if (keys[i].equals(key)) {
+				return true;
+			}
+
+			i = (i + 1) & mask;
+		}
+
+		return false;
+	}
+
+	/**
+	 * fills the gap at the specified slot by moving back every following entry of
+	 * the probe chain that is allowed to sit there
+	 * 
+	 * @param gap the slot of the removed entry
+	 */
+	private void shiftBack(int gap) {
+		int mask = keys.length - 1;
+		int i = (gap + 1) & mask;
+
+		while (keys[i] != null) {
+			int home = hash(keys[i].hashCode()) & mask;
+
+			// the entry may move to the gap if the gap lies between its home and its slot
+			if (((i - home) & mask) >= ((i - gap) & mask)) {
+				keys[gap] = keys[i];
+				values[gap] = values[i];
+				gap = i;
+			}
+
+			i = (i + 1) & mask;
+		}
+
+		keys[gap] = null;
+		values[gap] = null;
+	}
+
+	/**
+	 * @param x
+	 * @return the hash function for this map. linear probing needs the low bits of
+	 *         the hash to depend on every bit of the hash code
+	 */
+	protected int hash(int x) {
+		x *= 0x9e3779b9;
+		return x ^ (x >>> 16);
+	}
+
+	/**
+	 * clears this map of all keys and values
+	 */
+	public void clear() {
+		size = 0;
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = null;
+			values[i] = null;
+		}
+	}
+
+	/**
+	 * resized and rehashes all keys and values in this map
+	 * 
+	 * @param newSize the new size of the underlying map. this value should be a
+	 *                power of 2
+	 */
+	@SuppressWarnings("unchecked")
+	private void resize(int newSize) {
+		K[] oldKeys = keys;
+		V[] oldValues = values;
+
+		keys = (K[]) new Object[newSize];
+		values = (V[]) new Object[newSize];
+
+		int mask = newSize - 1;
+
+		for (int i = 0; i < oldKeys.length; i++) {
+			K key = oldKeys[i];
+			if (key == null) {
+				continue;
+			}
+
+			int j = hash(key.hashCode()) & mask;
+
+			while (keys[j] != null) {
+				j = (j + 1) & mask;
+			}
+
+			keys[j] = key;
+			values[j] = oldValues[i];
+		}
+	}
+
+	/**
+	 * performs the specified action on every entry of this map
+	 * 
+	 * @param action
+	 */
+	public void forEach(BiConsumer<? super K, ? super V> action) {
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != null) {
+				action.accept(keys[i], values[i]);
+			}
+		}
+	}
+
+	/**
+	 * removes every entry for which the specified filter returns true. the scan
+	 * starts after an empty slot, so the entries that a removal shifts back into
+	 * the scanned slot have not been tested yet
+	 * 
+	 * @param filter
+	 * @return the number of removed entries
+	 */
+	public int removeIf(BiPredicate<? super K, ? super V> filter) {
+		int mask = keys.length - 1;
+		int start = 0;
+		// there is always an empty slot, since the table is at most half full
+		while (keys[start] != null) {
+			start++;
+		}
+
+		int removed = 0;
+		int i = (start + 1) & mask;
+
+		while (i != start) {
+			if (keys[i] != null && filter.test(keys[i], values[i])) {
+				shiftBack(i);
+				size--;
+				removed++;
+			} else {
+				i = (i + 1) & mask;
+			}
+		}
+
+		return removed;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append('{');
+		boolean first = true;
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != null) {
+				if (first) {
+					first = false;
+				} else {
+					sb.append(", ");
+				}
+
+				sb.append(keys[i]).append('=').append(values[i]);
+			}
+		}
+		sb.append('}');
+		return sb.toString();
+	}
+}
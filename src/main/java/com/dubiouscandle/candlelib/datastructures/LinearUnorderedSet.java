@@ -0,0 +1,270 @@
+package com.dubiouscandle.candlelib.datastructures;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * open addressing implementation using linear probing. unlike
+ * {@link UnorderedSet}, removal shifts the following elements of the probe
+ * chain back instead of leaving a tombstone, so adding and contains checking
+ * stay fast after any number of removals and no manual rehashing is ever
+ * necessary. the behavior of null values is undefined.
+ * 
+ * @param <T> the type of the elements in the set
+ */
+public class LinearUnorderedSet<T> implements Iterable<T> {
+	/**
+	 * The values of this set for convienient iteration. empty slots hold null
+	 */
+	public T[] values;
+
+	/**
+	 * the number of elements in this set. do not change this value!
+	 */
+	public int size;
+
+	@SuppressWarnings("unchecked")
+	public LinearUnorderedSet() {
+		values = (T[]) new Object[16];
+		size = 0;
+	}
+
+	/**
+	 * adds the specified element to this set
+	 * 
+	 * @param e
+	 * @return true if the element was added (the element was not already in the
+	 *         set)
+	 */
+	public boolean add(T e) {
+		int mask = values.length - 1;
+		int i = hash(e.hashCode()) & mask;
+
+		while (values[i] != null) {
+			if (e.equals(values[i])) {
+				return false;
+			}
+
+			i = (i + 1) & mask;
+		}
+
+		values[i] = e;
+		size++;
+		if (size << 1 > values.length) {
+			resize(values.length << 1);
+		}
+		return true;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void resize(int newSize) {
+		T[] oldValues = values;
+		values = (T[]) new Object[newSize];
+		int mask = values.length - 1;
+
+		for (T e : oldValues) {
+			if (e == null) {
+				continue;
+			}
+
+			int j = hash(e.hashCode()) & mask;
+
+			while (values[j] != null) {
+				j = (j + 1) & mask;
+			}
+
+			values[j] = e;
+		}
+	}
+
+	/**
+	 * removes the specified element from this set
+	 * 
+	 * @param e
+	 * @return true if the element was removed (the element was in this set before)
+	 */
+	public boolean remove(T e) {
+		int mask = values.length - 1;
+		int i = hash(e.hashCode()) & mask;
+
+		while (values[i] != null) {
+			if (e.equals(values[i])) {
+				shiftBack(i);
+				size--;
+				return true;
+			}
+
+			i = (i + 1) & mask;
+		}
+
+		return false;
+	}
+
+	/**
+	 * fills the gap at the specified slot by moving back every following element
+	 * of the probe chain that is allowed to sit there
+	 * 
+	 * @param gap the slot of the removed element
+	 */
+	private void shiftBack(int gap) {
+		int mask = values.length - 1;
+		int i = (gap + 1) & mask;
+
+		while (values[i] != null) {
+			int home = hash(values[i].hashCode()) & mask;
+
+			// the element may move to the gap if the gap lies between its home and its slot
+			if (((i - home) & mask) >= ((i - gap) & mask)) {
+				values[gap] = values[i];
+				gap = i;
+			}
+
+			i = (i + 1) & mask;
+		}
+
+		values[gap] = null;
+	}
+
+	/**
+	 * 
+	 * @param e
+	 * @return if this set contains e
+	 */
+	public boolean contains(T e) {
+		int mask = values.length - 1;
+		int i = hash(e.hashCode()) & mask;
+
+		while (values[i] != null) {
+			if (e.equals(values[i])) {
+				return true;
+			}
+
+			i = (i + 1) & mask;
+		}
+
+		return false;
+	}
+
+	/**
+	 * @param x
+	 * @return the hash function for this set. linear probing needs the low bits of
+	 *         the hash to depend on every bit of the hash code
+	 */
+	protected int hash(int x) {
+		x *= 0x9e3779b9;
+		return x ^ (x >>> 16);
+	}
+
+	/**
+	 * clears this set of all elements
+	 */
+	public void clear() {
+		size = 0;
+		for (int i = 0; i < values.length; i++) {
+			values[i] = null;
+		}
+	}
+
+	/**
+	 * performs the specified action on every element of this set
+	 * 
+	 * @param action
+	 */
+	@Override
+	public void forEach(Consumer<? super T> action) {
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != null) {
+				action.accept(values[i]);
+			}
+		}
+	}
+
+	/**
+	 * removes every element for which the specified filter returns true. the scan
+	 * starts after an empty slot, so the elements that a removal shifts back into
+	 * the scanned slot have not been tested yet
+	 * 
+	 * @param filter
+	 * @return the number of removed elements
+	 */
+	public int removeIf(Predicate<? super T> filter) {
+		int mask = values.length - 1;
+		int start = 0;
+		// there is always an empty slot, since the table is at most half full
+		while (values[start] != null) {
+			start++;
+		}
+
+		int removed = 0;
+		int i = (start + 1) & mask;
+
+		while (i != start) {
+			if (values[i] != null && filter.test(values[i])) {
+				shiftBack(i);
+				size--;
+				removed++;
+			} else {
+				i = (i + 1) & mask;
+			}
+		}
+
+		return removed;
+	}
+
+	@Override
+	public String toString() {
+		if (size == 0) {
+			return "[]";
+		}
+
+		StringBuilder sb = new StringBuilder();
+
+		sb.append('[');
+		int i = 0;
+
+		while (values[i] == null) {
+			i++;
+		}
+
+		sb.append(values[i++]);
+
+		for (; i < values.length; i++) {
+			if (values[i] == null) {
+				continue;
+			}
+
+			sb.append(',').append(' ').append(values[i]);
+		}
+
+		sb.append(']');
+		return sb.toString();
+	}
+
+	/**
+	 * returns a new iterator for this set. removing through the iterator is not
+	 * supported, since shifting elements back could move an unvisited element
+	 * behind the iterator
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		return new Iterator<T>() {
+			private int i = 0;
+			private int count = 0;
+
+			@Override
+			public boolean hasNext() {
+				return count < size;
+			}
+
+			@Override
+			public T next() {
+				while (values[i] == null) {
+					i++;
+				}
+				count++;
+				return values[i++];
+			}
+		};
+	}
+}
@@ -0,0 +1,319 @@
+package com.dubiouscandle.candlelib.datastructures;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A read-only int to int map backed by a memory mapped file. The file holds the
+ * table of an {@link IntIntMap} as it is, with the same probing, so opening it
+ * only maps the file and never reads or rehashes the entries. Pages are loaded
+ * by the OS as lookups touch them and the page cache is shared by every process
+ * that maps the same file.
+ * <p>
+ * the file starts with a header of {@link #HEADER_BYTES} bytes, followed by
+ * every slot as its key, value and status, all little endian ints. files are
+ * written from a map with {@link #write(IntIntMap, Path)}, or key by key with a
+ * {@link Writer} without building the map on the heap first.
+ */
+public class MappedIntIntMap {
+	/**
+	 * the first int of every file
+	 */
+	public static final int MAGIC = 0x49494d31;
+	/**
+	 * the header is the magic, the version, the default value, an unused int, the
+	 * capacity as a long and the size as a long
+	 */
+	public static final int HEADER_BYTES = 32;
+
+	private static final int VERSION = 1;
+	private static final int SLOT_BYTES = 12;
+	private static final int VALUE_OFFSET = 4;
+	private static final int STATUS_OFFSET = 8;
+	/**
+	 * the number of slots in each mapped chunk of the file. a mapping can not be
+	 * larger than 2 GB, and no slot crosses the end of a chunk
+	 */
+	private static final int CHUNK_SHIFT = 26;
+	private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+
+	/**
+	 * the return value of {@link #get(int)} for keys that are not in this map
+	 */
+	public final int defaultValue;
+
+	/**
+	 * the number of key-value pairs in this map
+	 */
+	public final long size;
+
+	private final long capacity;
+	private final ByteBuffer[] chunks;
+
+	private MappedIntIntMap(ByteBuffer header, ByteBuffer[] chunks) {
+		defaultValue = header.getInt(8);
+		capacity = header.getLong(16);
+		size = header.getLong(24);
+		this.chunks = chunks;
+	}
+
+	/**
+	 * maps the specified file. the file can be closed and deleted afterwards,
+	 * but must not be modified while this map is used
+	 * 
+	 * @param path
+	 * @return a read-only view of the map in the file
+	 * @throws IOException if the file can not be read or is not a map file
+	 */
+	public static MappedIntIntMap open(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+			header.order(ByteOrder.LITTLE_ENDIAN);
+			checkHeader(header, path);
+
+			return new MappedIntIntMap(header, mapChunks(channel, FileChannel.MapMode.READ_ONLY, header.getLong(16)));
+		}
+	}
+
+	/**
+	 * writes the table of the specified map to the specified file. this finishes
+	 * any incremental resize of the map in progress
+	 * 
+	 * @param map
+	 * @param path the file to create or overwrite
+	 * @throws IOException
+	 */
+	public static void write(IntIntMap map, Path path) throws IOException {
+		map.finishResize();
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buffer = ByteBuffer.allocate(SLOT_BYTES << 12).order(ByteOrder.LITTLE_ENDIAN);
+			putHeader(buffer, map.defaultValue, map.status.length, map.size);
+			buffer.flip();
+			writeFully(channel, buffer);
+
+			for (int i = 0; i < map.status.length; i++) {
+				buffer.putInt(map.keys[i]).putInt(map.values[i]).putInt(map.status[i]);
+
+				if (!buffer.hasRemaining()) {
+					buffer.flip();
+					writeFully(channel, buffer);
+				}
+			}
+
+			buffer.flip();
+			writeFully(channel, buffer);
+		}
+	}
+
+	/**
+	 * @param key
+	 * @return the value associated with the specified key, or {@link #defaultValue}
+	 *         if there is none
+	 */
+	public int get(int key) {
+		long i = indexOf(key);
+		return i == -1 ? defaultValue : chunk(i).getInt(offset(i) + VALUE_OFFSET);
+	}
+
+	public boolean containsKey(int key) {
+		return indexOf(key) != -1;
+	}
+
+	/**
+	 * @return the number of slots in this map
+	 */
+	public long capacity() {
+		return capacity;
+	}
+
+	/**
+	 * @param key
+	 * @return the slot of the specified key, or -1 if it is not in this map
+	 */
+	private long indexOf(int key) {
+		long mask = capacity - 1;
+		long i = key & mask;
+
+		if (status(i) == IntIntMap.EMPTY) {
+			return -1;
+		}
+
+		long d = doubleHash(key);
+		long end = i;
+
+		do {
+			ByteBuffer chunk = chunk(i);
+			int offset = offset(i);
+
+			if (chunk.getInt(offset) == key && chunk.getInt(offset + STATUS_OFFSET) == IntIntMap.OCCUPIED) {
+				return i;
+			}
+
+			i = (i + d) & mask;
+		} while (status(i) != IntIntMap.EMPTY && i != end);
+
+		return -1;
+	}
+
+	private int status(long i) {
+		return chunk(i).getInt(offset(i) + STATUS_OFFSET);
+	}
+
+	private ByteBuffer chunk(long i) {
+		return chunks[(int) (i >>> CHUNK_SHIFT)];
+	}
+
+	private static int offset(long i) {
+		return (int) (i & CHUNK_MASK) * SLOT_BYTES;
+	}
+
+	/**
+	 * @param x
+	 * @return the double hash function of {@link IntIntMap}, which this map has to
+	 *         match
+	 */
+	private static int doubleHash(int x) {
+		x = (x + 0x7ed55d16) + (x << 12);
+		x = (x ^ 0xc761c23c) ^ (x >> 19);
+		x = (x + 0x165667b1) + (x << 5);
+		x = (x + 0xd3a2646c) ^ (x << 9);
+		x = (x + 0xfd7046c5) + (x << 3);
+		x = (x ^ 0xb55a4f09) ^ (x >> 16);
+		return (x & 1) == 1 ? x : (x << 1 | 1);
+	}
+
+	private static void putHeader(ByteBuffer buffer, int defaultValue, long capacity, long size) {
+		buffer.putInt(MAGIC).putInt(VERSION).putInt(defaultValue).putInt(0).putLong(capacity).putLong(size);
+	}
+
+	private static void checkHeader(ByteBuffer header, Path path) throws IOException {
+		if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+			throw new IOException(path + " is not a map file");
+		}
+	}
+
+	private static ByteBuffer[] mapChunks(FileChannel channel, FileChannel.MapMode mode, long capacity)
+			throws IOException {
+		int count = (int) ((capacity + CHUNK_MASK) >>> CHUNK_SHIFT);
+		ByteBuffer[] chunks = new ByteBuffer[count];
+
+		for (int c = 0; c < count; c++) {
+			long first = (long) c << CHUNK_SHIFT;
+			long slots = Math.min(capacity - first, 1L << CHUNK_SHIFT);
+			chunks[c] = channel.map(mode, HEADER_BYTES + first * SLOT_BYTES, slots * SLOT_BYTES)
+					.order(ByteOrder.LITTLE_ENDIAN);
+		}
+
+		return chunks;
+	}
+
+	private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * writes a map file key by key, directly into the mapped file, so the map is
+	 * never built on the heap. the capacity is fixed when the writer is created,
+	 * and the file is only valid after {@link #close()}
+	 */
+	public static class Writer implements AutoCloseable {
+		private final FileChannel channel;
+		private final ByteBuffer[] chunks;
+		private final long capacity;
+		private final int defaultValue;
+		private long size;
+		private boolean closed;
+
+		/**
+		 * @param path         the file to create or overwrite
+		 * @param expectedSize the most keys that will be put
+		 * @param defaultValue the default value of the map
+		 * @throws IOException
+		 */
+		public Writer(Path path, long expectedSize, int defaultValue) throws IOException {
+			long capacity = 16;
+			while (expectedSize << 1 > capacity) {
+				capacity <<= 1;
+			}
+			this.capacity = capacity;
+			this.defaultValue = defaultValue;
+
+			channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+					StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+			// the file is extended with zeros, which are empty slots
+			chunks = mapChunks(channel, FileChannel.MapMode.READ_WRITE, capacity);
+		}
+
+		/**
+		 * puts the key value pair into the file
+		 * 
+		 * @param key
+		 * @param value
+		 * @throws IllegalStateException if more keys than the expected size are put,
+		 *                               or if this writer is closed
+		 */
+		public void put(int key, int value) {
+			if (closed) {
+				throw new IllegalStateException("closed");
+			}
+
+			long mask = capacity - 1;
+			long i = key & mask;
+			long d = doubleHash(key);
+
+			for (;;) {
+				ByteBuffer chunk = chunks[(int) (i >>> CHUNK_SHIFT)];
+				int offset = offset(i);
+
+				if (chunk.getInt(offset + STATUS_OFFSET) == IntIntMap.EMPTY) {
+					if (size << 1 >= capacity) {
+						throw new IllegalStateException("more keys than the expected size");
+					}
+
+					chunk.putInt(offset, key);
+					chunk.putInt(offset + VALUE_OFFSET, value);
+					chunk.putInt(offset + STATUS_OFFSET, IntIntMap.OCCUPIED);
+					size++;
+					return;
+				} else if (chunk.getInt(offset) == key) {
+					chunk.putInt(offset + VALUE_OFFSET, value);
+					return;
+				}
+
+				i = (i + d) & mask;
+			}
+		}
+
+		/**
+		 * writes the header and flushes the file. closing it again does nothing
+		 */
+		@Override
+		public void close() throws IOException {
+			if (closed) {
+				return;
+			}
+			closed = true;
+
+			try (channel) {
+				for (ByteBuffer chunk : chunks) {
+					((MappedByteBuffer) chunk).force();
+				}
+
+				ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+				putHeader(header, defaultValue, capacity, size);
+				header.flip();
+				channel.write(header, 0);
+			}
+		}
+	}
+}
@@ -0,0 +1,193 @@
+package com.dubiouscandle.candlelib.datastructures;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A read-only vector of ints backed by a memory mapped file. Opening a file
+ * only maps it and never reads the items, pages are loaded by the OS as they
+ * are touched, and the page cache is shared by every process that maps the
+ * same file. Indices are longs, so a file can hold more items than an array.
+ * No checks are performed for bounds in this class.
+ * <p>
+ * the file starts with a header of {@link #HEADER_BYTES} bytes, followed by
+ * every item as a little endian int. files are written from a vector with
+ * {@link #write(IntVector, Path)}, or item by item with a {@link Writer}
+ * without building the vector on the heap first.
+ */
+public class MappedIntVector {
+	/**
+	 * the first int of every file
+	 */
+	public static final int MAGIC = 0x49564d31;
+	/**
+	 * the header is the magic, the version and the size as a long
+	 */
+	public static final int HEADER_BYTES = 16;
+
+	private static final int VERSION = 1;
+	/**
+	 * the number of items in each mapped chunk of the file, since a mapping can
+	 * not be larger than 2 GB
+	 */
+	private static final int CHUNK_SHIFT = 28;
+	private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+
+	/**
+	 * the number of items in this vector
+	 */
+	public final long size;
+
+	private final ByteBuffer[] chunks;
+
+	private MappedIntVector(long size, ByteBuffer[] chunks) {
+		this.size = size;
+		this.chunks = chunks;
+	}
+
+	/**
+	 * maps the specified file. the file can be closed and deleted afterwards,
+	 * but must not be modified while this vector is used
+	 * 
+	 * @param path
+	 * @return a read-only view of the vector in the file
+	 * @throws IOException if the file can not be read or is not a vector file
+	 */
+	public static MappedIntVector open(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+			header.order(ByteOrder.LITTLE_ENDIAN);
+
+			if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+				throw new IOException(path + " is not a vector file");
+			}
+
+			long size = header.getLong(8);
+			int count = (int) ((size + CHUNK_MASK) >>> CHUNK_SHIFT);
+			ByteBuffer[] chunks = new ByteBuffer[count];
+
+			for (int c = 0; c < count; c++) {
+				long first = (long) c << CHUNK_SHIFT;
+				long items = Math.min(size - first, 1L << CHUNK_SHIFT);
+				chunks[c] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + first * Integer.BYTES,
+						items * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			}
+
+			return new MappedIntVector(size, chunks);
+		}
+	}
+
+	/**
+	 * writes the items of the specified vector to the specified file
+	 * 
+	 * @param vector
+	 * @param path   the file to create or overwrite
+	 * @throws IOException
+	 */
+	public static void write(IntVector vector, Path path) throws IOException {
+		try (Writer writer = new Writer(path)) {
+			for (int i = 0; i < vector.size; i++) {
+				writer.add(vector.items[i]);
+			}
+		}
+	}
+
+	/**
+	 * @param index
+	 * @return the item at the specified index
+	 */
+	public int get(long index) {
+		return chunks[(int) (index >>> CHUNK_SHIFT)].getInt((int) (index & CHUNK_MASK) << 2);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append('[');
+		for (long i = 0; i < size; i++) {
+			if (i > 0) {
+				sb.append(", ");
+			}
+			sb.append(get(i));
+		}
+		sb.append(']');
+		return sb.toString();
+	}
+
+	/**
+	 * writes a vector file item by item through a small buffer, so the vector is
+	 * never built on the heap. the file is only valid after {@link #close()}
+	 */
+	public static class Writer implements AutoCloseable {
+		private final FileChannel channel;
+		private final ByteBuffer buffer;
+		private long size;
+		private boolean closed;
+
+		/**
+		 * @param path the file to create or overwrite
+		 * @throws IOException
+		 */
+		public Writer(Path path) throws IOException {
+			channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING);
+			buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+			// the header is written once the size is known
+			channel.position(HEADER_BYTES);
+		}
+
+		/**
+		 * appends the specified item to the file
+		 * 
+		 * @param value
+		 * @throws IOException
+		 * @throws IllegalStateException if this writer is closed
+		 */
+		public void add(int value) throws IOException {
+			if (closed) {
+				throw new IllegalStateException("closed");
+			}
+
+			buffer.putInt(value);
+			size++;
+
+			if (!buffer.hasRemaining()) {
+				flush();
+			}
+		}
+
+		private void flush() throws IOException {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+
+		/**
+		 * writes the remaining items and the header. closing it again does nothing
+		 */
+		@Override
+		public void close() throws IOException {
+			if (closed) {
+				return;
+			}
+			closed = true;
+
+			try (channel) {
+				flush();
+
+				buffer.putInt(MAGIC).putInt(VERSION).putLong(size);
+				buffer.flip();
+				while (buffer.hasRemaining()) {
+					channel.write(buffer, HEADER_BYTES - buffer.remaining());
+				}
+			}
+		}
+	}
+}
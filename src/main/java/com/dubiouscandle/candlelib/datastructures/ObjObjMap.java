@@ -1,13 +1,42 @@
 package com.dubiouscandle.candlelib.datastructures;
 
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * An Object to Object map implemented using open addressing and double hashing.
  * This class does not guarantee especially fast putting and contains checking
  * after many removals. Therefore it is necessary for the user to manually call
- * {@link #rehash()} when necessary to maintain performance.
+ * {@link #rehash()} when necessary to maintain performance, which the tombstones
+ * and probe lengths reported by {@link #stats()} help to decide. see
+ * {@link LinearObjObjMap} for a map that never needs rehashing.
+ * <p>
+ * by default, growing the map rehashes every entry at once. setting
+ * {@link #resizeStep} instead spreads that work over the following puts and
+ * removes, so no single call pays for rehashing the whole map. while such a
+ * resize is in progress the public arrays only hold part of the entries, so
+ * call {@link #finishResize()} before iterating them.
+ * <p>
+ * the table grows once more than its load factor share of the slots hold
+ * entries, and halves once a quarter of that share is left, but never below the
+ * capacity the constructor gave it. {@link #trimToSize()} shrinks it further.
+ * <p>
+ * the keys are hashed and compared by a {@link HashingStrategy}, which calls
+ * their hashCode and equals methods unless another one is given.
  */
 public class ObjObjMap<K, V> {
 	public static final Object TOMBSTONE = new Object();
+	/**
+	 * the number of keys whose first slots are loaded together by the batch
+	 * operations
+	 */
+	private static final int BATCH = 16;
 	@SuppressWarnings("unchecked")
 	private final V tombstone = (V) TOMBSTONE;
 	/**
@@ -25,11 +54,98 @@ public class ObjObjMap<K, V> {
 	 */
 	public int size;
 
-	@SuppressWarnings("unchecked")
+	/**
+	 * the number of slots of the old table that are rehashed by each put and
+	 * remove while a resize is in progress, or 0 to rehash every entry as soon
+	 * as the map grows. at least 1 / the load factor, so 2 at the default load
+	 * factor, finishes a resize that grew the table before the next growth is
+	 * due. a resize still in progress when the next one is due, such as one that
+	 * shrank the table, is finished at once by it
+	 */
+	public int resizeStep;
+
+	private K[] oldKeys;
+	private V[] oldValues;
+	/**
+	 * the number of slots of the old table that have already been rehashed
+	 */
+	private int migrated;
+
+	/**
+	 * the statistics of this map, or null if they are not collected
+	 */
+	private HashStats stats;
+
+	/**
+	 * the fraction of the slots that may hold entries before the table grows
+	 */
+	private final float loadFactor;
+	/**
+	 * the number of entries above which the table grows
+	 */
+	private int threshold;
+	/**
+	 * the capacity the table never shrinks below on its own
+	 */
+	private final int minCapacity;
+
+	/**
+	 * hashes and compares the keys
+	 */
+	private final HashingStrategy<? super K> strategy;
+
 	public ObjObjMap() {
+		this(8, 0.5f);
+	}
+
+	/**
+	 * @param expectedSize the number of entries the map holds without growing
+	 */
+	public ObjObjMap(int expectedSize) {
+		this(expectedSize, 0.5f);
+	}
+
+	/**
+	 * @param strategy hashes and compares the keys instead of their own hashCode
+	 *                 and equals methods
+	 */
+	public ObjObjMap(HashingStrategy<? super K> strategy) {
+		this(8, 0.5f, strategy);
+	}
+
+	/**
+	 * @param expectedSize the number of entries the map holds without growing
+	 * @param loadFactor   the fraction of the slots that may hold entries before
+	 *                     the table grows. lower values make probes shorter and
+	 *                     take more memory
+	 * @throws IllegalArgumentException if the load factor is not between 0 and 1
+	 */
+	public ObjObjMap(int expectedSize, float loadFactor) {
+		this(expectedSize, loadFactor, HashingStrategy.DEFAULT);
+	}
+
+	/**
+	 * @param expectedSize the number of entries the map holds without growing
+	 * @param loadFactor   the fraction of the slots that may hold entries before
+	 *                     the table grows. lower values make probes shorter and
+	 *                     take more memory
+	 * @param strategy     hashes and compares the keys instead of their own
+	 *                     hashCode and equals methods
+	 * @throws IllegalArgumentException if the load factor is not between 0 and 1
+	 */
+	@SuppressWarnings("unchecked")
+	public ObjObjMap(int expectedSize, float loadFactor, HashingStrategy<? super K> strategy) {
+		if (!(loadFactor > 0 && loadFactor < 1)) {
+			throw new IllegalArgumentException("load factor must be between 0 and 1: " + loadFactor);
+		}
+
+		this.loadFactor = loadFactor;
+		this.strategy = strategy;
+		minCapacity = capacityFor(expectedSize);
 		size = 0;
-		keys = (K[]) new Object[16];
-		values = (V[]) new Object[16];
+		keys = (K[]) new Object[minCapacity];
+		values = (V[]) new Object[minCapacity];
+		threshold = (int) (minCapacity * loadFactor);
 	}
 
 	/**
@@ -37,25 +153,19 @@ public class ObjObjMap<K, V> {
 	 * @return the value associated with the specified key, or null if there is none
 	 */
 	public V get(K key) {
-		int mask = values.length - 1;
-		int i = key.hashCode();
+		int i = indexOf(keys, values, key);
 
-		if (values[i & mask] == null) {
-			return null;
+		if (i != -1) {
+			return values[i];
 		}
 
-		int d = doubleHash(i);
-		i &= mask;
-
-		int end = i;
+		if (oldValues != null) {
+			i = indexOf(oldKeys, oldValues, key);
 
-		do {
-			if (keys[i].equals(key) && values[i] != tombstone && values[i] != null) {
-				return values[i];
+			if (i != -1) {
+				return oldValues[i];
 			}
-
-			i = (i + d) & mask;
-		} while (values[i] != null && i != end);
+		}
 
 		return null;
 	}
@@ -68,30 +178,32 @@ public class ObjObjMap<K, V> {
 	 *         {@link #defaultValue} if there was none
 	 */
 	public V remove(K key) {
-		int mask = values.length - 1;
-		int i = key.hashCode();
+		int i = indexOf(keys, values, key);
 
-		if (values[i & mask] == null) {
-			return null;
-		}
-
-		int d = doubleHash(i);
-		i &= mask;
+		V oldValue = null;
 
-		int end = i;
+		if (i != -1) {
+			oldValue = values[i];
+			values[i] = tombstone;
+			size--;
+		} else if (oldValues != null) {
+			i = indexOf(oldKeys, oldValues, key);
 
-		do {
-			if (keys[i].equals(key) && values[i] != tombstone && values[i] != null) {
-				V oldValue = values[i];
-				values[i] = tombstone;
+			if (i != -1) {
+				oldValue = oldValues[i];
+				oldValues[i] = tombstone;
 				size--;
-				return oldValue;
 			}
+		}
 
-			i = (i + d) & mask;
-		} while (values[i] != null && i != end);
+		if (i != -1 && shrinkIfSparse()) {
+			return oldValue;
+		}
 
-		return null;
+		if (oldValues != null) {
+			migrate(resizeStep);
+		}
+		return oldValue;
 	}
 
 	/**
@@ -103,7 +215,7 @@ public class ObjObjMap<K, V> {
 	 */
 	public V put(K key, V value) {
 		int mask = values.length - 1;
-		int i = key.hashCode();
+		int i = hash(key);
 
 		if (values[i & mask] != null) {
 			int d = doubleHash(i);
@@ -112,9 +224,12 @@ public class ObjObjMap<K, V> {
 			int firstTombstone = -1;
 			int end = i;
 			do {
-				if (keys[i].equals(key) && values[i] != TOMBSTONE && values[i] != null) {
+				if (eq(keys[i], key) && values[i] != TOMBSTONE && values[i] != null) {
 					V oldValue = values[i];
 					values[i] = value;
+					if (oldValues != null) {
+						migrate(resizeStep);
+					}
 					return oldValue;
 				} else if (firstTombstone == -1 && values[i] == TOMBSTONE) {
 					firstTombstone = i;
@@ -127,22 +242,410 @@ public class ObjObjMap<K, V> {
 			}
 		}
 
+		V oldValue = null;
+
+		if (oldValues != null) {
+			int j = indexOf(oldKeys, oldValues, key);
+
+			if (j != -1) {
+				oldValue = oldValues[j];
+				oldValues[j] = tombstone;
+				size--;
+			}
+		}
+
 		i &= mask;
 		keys[i] = key;
 		values[i] = value;
 		size++;
-		if (size << 1 > values.length) {
+		if (size > threshold) {
 			resize(values.length << 1);
+		} else if (oldValues != null) {
+			migrate(resizeStep);
 		}
-		return null;
+		return oldValue;
 	}
 
 	public boolean containsKey(K key) {
+		return indexOf(keys, values, key) != -1 || oldValues != null && indexOf(oldKeys, oldValues, key) != -1;
+	}
+
+	/**
+	 * looks up many keys at once. the hash codes of a group of keys are computed
+	 * and all of their first slots are loaded before any of them is compared, so
+	 * their cache misses overlap instead of each lookup waiting for the previous
+	 * one
+	 * 
+	 * @param keys
+	 * @param out  receives the value associated with each key, or null if there
+	 *             is none
+	 */
+	@SuppressWarnings("unchecked")
+	public void getAll(K[] keys, V[] out) {
+		if (oldValues != null) {
+			for (int j = 0; j < keys.length; j++) {
+				out[j] = get(keys[j]);
+			}
+			return;
+		}
+
+		K[] tableKeys = this.keys;
+		V[] tableValues = this.values;
+		int mask = tableValues.length - 1;
+		int[] slots = new int[BATCH];
+		Object[] firstKeys = new Object[BATCH];
+		Object[] firstValues = new Object[BATCH];
+
+		for (int base = 0; base < keys.length; base += BATCH) {
+			int n = Math.min(BATCH, keys.length - base);
+
+			for (int j = 0; j < n; j++) {
+				slots[j] = hash(keys[base + j]) & mask;
+			}
+
+			for (int j = 0; j < n; j++) {
+				firstKeys[j] = tableKeys[slots[j]];
+				firstValues[j] = tableValues[slots[j]];
+			}
+
+			for (int j = 0; j < n; j++) {
+				K key = keys[base + j];
+
+				if (firstValues[j] == null) {
+					out[base + j] = null;
+				} else if (firstValues[j] != tombstone && eq((K) firstKeys[j], key)) {
+					out[base + j] = tableValues[slots[j]];
+				} else {
+					int i = indexOf(tableKeys, tableValues, key);
+					out[base + j] = i == -1 ? null : tableValues[i];
+				}
+			}
+		}
+	}
+
+	/**
+	 * checks many keys at once, like {@link #getAll(Object[], Object[])}
+	 * 
+	 * @param keys
+	 * @param out  receives whether each key is in this map
+	 */
+	@SuppressWarnings("unchecked")
+	public void containsAll(K[] keys, boolean[] out) {
+		if (oldValues != null) {
+			for (int j = 0; j < keys.length; j++) {
+				out[j] = containsKey(keys[j]);
+			}
+			return;
+		}
+
+		K[] tableKeys = this.keys;
+		V[] tableValues = this.values;
+		int mask = tableValues.length - 1;
+		int[] slots = new int[BATCH];
+		Object[] firstKeys = new Object[BATCH];
+		Object[] firstValues = new Object[BATCH];
+
+		for (int base = 0; base < keys.length; base += BATCH) {
+			int n = Math.min(BATCH, keys.length - base);
+
+			for (int j = 0; j < n; j++) {
+				slots[j] = hash(keys[base + j]) & mask;
+			}
+
+			for (int j = 0; j < n; j++) {
+				firstKeys[j] = tableKeys[slots[j]];
+				firstValues[j] = tableValues[slots[j]];
+			}
+
+			for (int j = 0; j < n; j++) {
+				K key = keys[base + j];
+
+				if (firstValues[j] == null) {
+					out[base + j] = false;
+				} else if (firstValues[j] != tombstone && eq((K) firstKeys[j], key)) {
+					out[base + j] = true;
+				} else {
+					out[base + j] = indexOf(tableKeys, tableValues, key) != -1;
+				}
+			}
+		}
+	}
+
+	/**
+	 * puts many key value pairs at once. the table is grown once up front so
+	 * that all keys fit, which also finishes any incremental resize in progress,
+	 * and the first slots of a group of keys are loaded before any of them is put
+	 * 
+	 * @param keys
+	 * @param values the value of each key
+	 */
+	public void putAll(K[] keys, V[] values) {
+		ensureCapacity(size + keys.length);
+		finishResize();
+
+		K[] tableKeys = this.keys;
+		V[] tableValues = this.values;
+		int mask = tableValues.length - 1;
+		int[] slots = new int[BATCH];
+		Object[] firstValues = new Object[BATCH];
+
+		for (int base = 0; base < keys.length; base += BATCH) {
+			int n = Math.min(BATCH, keys.length - base);
+
+			for (int j = 0; j < n; j++) {
+				slots[j] = hash(keys[base + j]) & mask;
+			}
+
+			for (int j = 0; j < n; j++) {
+				firstValues[j] = tableValues[slots[j]];
+			}
+
+			for (int j = 0; j < n; j++) {
+				int i = slots[j];
+
+				// an empty first slot means the key is not in the table, unless an earlier
+				// key of the same group was just put there
+				if (firstValues[j] == null && tableValues[i] == null) {
+					tableKeys[i] = keys[base + j];
+					tableValues[i] = values[base + j];
+					size++;
+				} else {
+					put(keys[base + j], values[base + j]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * grows the table once so that the specified number of entries fit without
+	 * another resize
+	 * 
+	 * @param expectedSize
+	 */
+	public void ensureCapacity(int expectedSize) {
+		int newSize = capacityFor(expectedSize);
+		if (newSize > values.length) {
+			resize(newSize);
+		}
+	}
+
+	/**
+	 * shrinks the table to the smallest capacity that holds the entries of this
+	 * map, which also clears all tombstones
+	 */
+	public void trimToSize() {
+		int newSize = capacityFor(size);
+		if (newSize < values.length) {
+			resize(newSize);
+		}
+	}
+
+	/**
+	 * halves the table, or more after a bulk removal, once a quarter of the
+	 * entries it may hold are left, as long as it stays at least as large as the
+	 * constructor made it
+	 * 
+	 * @return true if the table shrank
+	 */
+	private boolean shrinkIfSparse() {
+		if (size >= threshold >> 2 || values.length <= minCapacity) {
+			return false;
+		}
+
+		resize(Math.max(minCapacity, capacityFor(size) << 1));
+		return true;
+	}
+
+	/**
+	 * @param expectedSize
+	 * @return the smallest power of 2, and at least 16, whose load factor share
+	 *         holds the specified number of entries
+	 */
+	private int capacityFor(int expectedSize) {
+		int capacity = 16;
+		while (capacity < 1 << 30 && expectedSize > (long) (capacity * (double) loadFactor)) {
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+
+	/**
+	 * @return the number of bytes of the arrays of this map, including the old
+	 *         table of an incremental resize in progress, assuming compressed
+	 *         references of 4 bytes. the keys and values themselves are not
+	 *         counted
+	 */
+	public long memoryFootprintBytes() {
+		long slots = values.length + (oldValues == null ? 0 : oldValues.length);
+		return slots * 2 * Integer.BYTES;
+	}
+
+	/**
+	 * puts the key value pair into this map if the key is not already in it
+	 * 
+	 * @param key
+	 * @param value
+	 * @return the value that is now associated with the specified key
+	 */
+	public V getOrPut(K key, V value) {
+		int i = find(key);
+
+		if (i >= 0) {
+			if (oldValues != null) {
+				migrate(resizeStep);
+			}
+			return values[i];
+		}
+
+		insert(-i - 1, key, value);
+		return value;
+	}
+
+	/**
+	 * associates the specified key with the result of the function if it is not
+	 * already in this map. the function must not modify this map
+	 * 
+	 * @param key
+	 * @param function is given the key. nothing is put if it returns null
+	 * @return the value that is now associated with the specified key, or null if
+	 *         there is none
+	 */
+	public V computeIfAbsent(K key, Function<? super K, ? extends V> function) {
+		int i = find(key);
+
+		if (i >= 0) {
+			if (oldValues != null) {
+				migrate(resizeStep);
+			}
+			return values[i];
+		}
+
+		V value = function.apply(key);
+
+		if (value == null) {
+			if (oldValues != null) {
+				migrate(resizeStep);
+			}
+			return null;
+		}
+
+		insert(-i - 1, key, value);
+		return value;
+	}
+
+	/**
+	 * puts the key value pair into this map if the key is not already in it, and
+	 * otherwise associates the key with the result of the function. the function
+	 * must not modify this map
+	 * 
+	 * @param key
+	 * @param value
+	 * @param function is given the current value and the specified value. the key
+	 *                 is removed if it returns null
+	 * @return the value that is now associated with the specified key, or null if
+	 *         there is none
+	 */
+	public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> function) {
+		int i = find(key);
+
+		if (i < 0) {
+			insert(-i - 1, key, value);
+			return value;
+		}
+
+		V newValue = function.apply(values[i], value);
+
+		if (newValue == null) {
+			values[i] = tombstone;
+			size--;
+
+			if (shrinkIfSparse()) {
+				return null;
+			}
+		} else {
+			values[i] = newValue;
+		}
+
+		if (oldValues != null) {
+			migrate(resizeStep);
+		}
+		return newValue;
+	}
+
+	/**
+	 * walks the probe sequence of the specified key once. if the key is only in
+	 * the old table of an incremental resize it is moved into the current one
+	 * 
+	 * @param key
+	 * @return the slot of the specified key in the current table, or -(the slot it
+	 *         should be put into) - 1 if it is not in this map
+	 */
+	private int find(K key) {
 		int mask = values.length - 1;
-		int i = key.hashCode();
+		int i = hash(key);
+		int d = doubleHash(i);
+		i &= mask;
+
+		if (values[i] != null) {
+			int firstTombstone = -1;
+			int end = i;
+			do {
+				if (values[i] == tombstone) {
+					if (firstTombstone == -1) {
+						firstTombstone = i;
+					}
+				} else if (eq(keys[i], key)) {
+					return i;
+				}
+				i = (i + d) & mask;
+			} while (values[i] != null && i != end);
+
+			if (firstTombstone != -1) {
+				i = firstTombstone;
+			}
+		}
+
+		if (oldValues != null) {
+			int j = indexOf(oldKeys, oldValues, key);
+
+			if (j != -1) {
+				keys[i] = key;
+				values[i] = oldValues[j];
+				oldValues[j] = tombstone;
+				return i;
+			}
+		}
+
+		return -i - 1;
+	}
+
+	/**
+	 * puts a key that is not in this map into the specified free slot
+	 */
+	private void insert(int i, K key, V value) {
+		keys[i] = key;
+		values[i] = value;
+		size++;
+		if (size > threshold) {
+			resize(values.length << 1);
+		} else if (oldValues != null) {
+			migrate(resizeStep);
+		}
+	}
+
+	/**
+	 * @param keys
+	 * @param values
+	 * @param key
+	 * @return the slot of the specified key in the specified table, or -1 if it is
+	 *         not there
+	 */
+	private int indexOf(K[] keys, V[] values, K key) {
+		int mask = values.length - 1;
+		int i = hash(key);
 
 		if (values[i & mask] == null) {
-			return false;
+			return -1;
 		}
 
 		int d = doubleHash(i);
@@ -151,14 +654,29 @@ public class ObjObjMap<K, V> {
 		int end = i;
 
 		do {
-			if (keys[i].equals(key) && values[i] != tombstone && values[i] != null) {
-				return true;
+			if (eq(keys[i], key) && values[i] != tombstone && values[i] != null) {
+				return i;
 			}
 
 			i = (i + d) & mask;
 		} while (values[i] != null && i != end);
 
-		return false;
+		return -1;
+	}
+
+	/**
+	 * @return the strategy that hashes and compares the keys of this map
+	 */
+	public HashingStrategy<? super K> hashingStrategy() {
+		return strategy;
+	}
+
+	private int hash(K key) {
+		return strategy.hashCode(key);
+	}
+
+	private boolean eq(K a, K b) {
+		return strategy.equals(a, b);
 	}
 
 	/**
@@ -178,49 +696,116 @@ public class ObjObjMap<K, V> {
 	/**
 	 * clears this set of all keys and values
 	 */
+	@SuppressWarnings("unchecked")
 	public void clear() {
 		size = 0;
-		for (int i = 0; i < values.length; i++) {
-			values[i] = null;
+		if (values.length > minCapacity) {
+			// a table left large by a spike would only slow down later scans
+			keys = (K[]) new Object[minCapacity];
+			values = (V[]) new Object[minCapacity];
+			threshold = (int) (minCapacity * loadFactor);
+		} else {
+			for (int i = 0; i < values.length; i++) {
+				values[i] = null;
+			}
 		}
+		oldKeys = null;
+		oldValues = null;
 	}
 
 	/**
-	 * resized and rehashes all keys and values in this array
+	 * resizes this map and rehashes all keys and values, or only the first
+	 * {@link #resizeStep} slots if it is set
 	 * 
 	 * @param newSize the new size of the underlying map. this value should be a
 	 *                power of 2
 	 */
 	@SuppressWarnings("unchecked")
 	private void resize(int newSize) {
-		K[] oldKeys = keys;
-		V[] oldValues = values;
+		HashResizeEvent event = new HashResizeEvent();
+		boolean timed = stats != null || event.isEnabled();
+		long startNanos = timed ? System.nanoTime() : 0;
+		int oldCapacity = values.length;
+
+		finishResize();
+
+		oldKeys = keys;
+		oldValues = values;
+		migrated = 0;
 
 		values = (V[]) new Object[newSize];
 		keys = (K[]) new Object[newSize];
+		threshold = (int) (newSize * loadFactor);
+
+		migrate(resizeStep);
+
+		if (timed) {
+			long nanos = System.nanoTime() - startNanos;
+			if (stats != null) {
+				stats.resized(oldCapacity, newSize, nanos);
+			}
+			event.commit(this, oldCapacity, newSize, size, nanos);
+		}
+	}
+
+	/**
+	 * rehashes the next slots of the old table into the current one
+	 * 
+	 * @param slots the number of slots to rehash, or 0 to rehash all remaining
+	 *              slots
+	 */
+	private void migrate(int slots) {
+		int end = slots <= 0 ? oldValues.length : Math.min(migrated + slots, oldValues.length);
+		int mask = values.length - 1;
 
-		for (int i = 0; i < oldKeys.length; i++) {
+		for (int i = migrated; i < end; i++) {
 			if (oldValues[i] == null || oldValues[i] == TOMBSTONE) {
 				continue;
 			}
 
-			V value = oldValues[i];
 			K key = oldKeys[i];
-
-			int mask = values.length - 1;
-			int j = key.hashCode();
+			int j = hash(key);
 			int d = doubleHash(j);
 			j &= mask;
 
-			while (values[j] != null) {
+			while (values[j] != null && values[j] != TOMBSTONE) {
 				j = (j + d) & mask;
 			}
 
 			keys[j] = key;
-			values[j] = value;
+			values[j] = oldValues[i];
+			// keep the old probe chains intact for lookups until the migration ends
+			oldValues[i] = tombstone;
+		}
+
+		migrated = end;
+
+		if (migrated == oldValues.length) {
+			oldKeys = null;
+			oldValues = null;
 		}
 	}
 
+	/**
+	 * rehashes all remaining entries of an incremental resize, after which the
+	 * public arrays hold every entry of this map
+	 */
+	public void finishResize() {
+		if (oldValues != null) {
+			migrate(0);
+		}
+	}
+
+	/**
+	 * copies this map into an immutable map that finds every key with a single
+	 * slot access. this finishes any incremental resize in progress
+	 * 
+	 * @return the frozen copy of this map
+	 */
+	public FrozenObjObjMap<K, V> freeze() {
+		return new FrozenObjObjMap<>(this);
+	}
+
 	/**
 	 * rehashes all keys and values in this map
 	 */
@@ -228,6 +813,240 @@ public class ObjObjMap<K, V> {
 		resize(values.length);
 	}
 
+	/**
+	 * starts collecting statistics about this map. nothing is collected until
+	 * this is called
+	 */
+	public void enableStats() {
+		if (stats == null) {
+			stats = new HashStats();
+		}
+	}
+
+	/**
+	 * stops collecting statistics about this map and discards the collected ones
+	 */
+	public void disableStats() {
+		stats = null;
+	}
+
+	/**
+	 * scans every slot of this map to bring the table statistics up to date
+	 * 
+	 * @return the statistics of this map, or null if they are not enabled
+	 */
+	public HashStats stats() {
+		if (stats == null) {
+			return null;
+		}
+
+		stats.beginScan(values.length, size);
+		int mask = values.length - 1;
+
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] == tombstone) {
+				stats.tombstones++;
+			} else if (values[i] != null) {
+				int h = hash(keys[i]);
+				int j = h & mask;
+				int probes = 1;
+
+				if (j != i) {
+					int d = doubleHash(h);
+					do {
+						j = (j + d) & mask;
+						probes++;
+					} while (j != i);
+				}
+
+				stats.addProbeLength(probes);
+			}
+		}
+
+		return stats;
+	}
+
+	/**
+	 * performs the specified action on every key and value of this map. this
+	 * finishes any incremental resize in progress
+	 * 
+	 * @param action
+	 */
+	public void forEach(BiConsumer<? super K, ? super V> action) {
+		finishResize();
+
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != null && values[i] != tombstone) {
+				action.accept(keys[i], values[i]);
+			}
+		}
+	}
+
+	/**
+	 * performs the specified action on every key of this map. this finishes any
+	 * incremental resize in progress
+	 * 
+	 * @param action
+	 */
+	public void forEachKey(Consumer<? super K> action) {
+		finishResize();
+
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != null && values[i] != tombstone) {
+				action.accept(keys[i]);
+			}
+		}
+	}
+
+	/**
+	 * performs the specified action on every value of this map. this finishes any
+	 * incremental resize in progress
+	 * 
+	 * @param action
+	 */
+	public void forEachValue(Consumer<? super V> action) {
+		finishResize();
+
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != null && values[i] != tombstone) {
+				action.accept(values[i]);
+			}
+		}
+	}
+
+	/**
+	 * removes every entry for which the specified filter returns true. this
+	 * finishes any incremental resize in progress
+	 * 
+	 * @param filter
+	 * @return the number of removed entries
+	 */
+	public int removeIf(BiPredicate<? super K, ? super V> filter) {
+		finishResize();
+		int removed = 0;
+
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != null && values[i] != tombstone && filter.test(keys[i], values[i])) {
+				values[i] = tombstone;
+				removed++;
+			}
+		}
+
+		size -= removed;
+		shrinkIfSparse();
+		return removed;
+	}
+
+	/**
+	 * returns a new cursor over the entries of this map. this finishes any
+	 * incremental resize in progress
+	 * 
+	 * @return a cursor positioned before the first entry
+	 */
+	public Cursor cursor() {
+		finishResize();
+		return new Cursor();
+	}
+
+	/**
+	 * a cursor over the entries of the map, which reads the public arrays of the
+	 * map directly. a cursor that does not escape the loop using it is usually
+	 * scalar replaced, and one that does can be moved back to the start with
+	 * {@link #reset()} instead of creating another. the map must not be changed
+	 * while the cursor is used, except through {@link #setValue(Object)} and
+	 * {@link #remove()}.
+	 */
+	public final class Cursor {
+		private int i = -1;
+
+		private Cursor() {
+		}
+
+		/**
+		 * moves the cursor to the next entry
+		 * 
+		 * @return false if there are no more entries
+		 */
+		public boolean next() {
+			while (++i < values.length) {
+				if (values[i] != null && values[i] != tombstone) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * @return the key of the current entry
+		 */
+		public K key() {
+			return keys[i];
+		}
+
+		/**
+		 * @return the value of the current entry
+		 */
+		public V value() {
+			return values[i];
+		}
+
+		/**
+		 * replaces the value of the current entry
+		 * 
+		 * @param value must not be null
+		 */
+		public void setValue(V value) {
+			values[i] = value;
+		}
+
+		/**
+		 * removes the current entry from the map. unlike
+		 * {@link ObjObjMap#remove(Object)}, this never shrinks the table
+		 */
+		public void remove() {
+			values[i] = tombstone;
+			size--;
+		}
+
+		/**
+		 * moves the cursor back before the first entry. this finishes any
+		 * incremental resize in progress
+		 * 
+		 * @return this cursor
+		 */
+		public Cursor reset() {
+			finishResize();
+			i = -1;
+			return this;
+		}
+	}
+
+	/**
+	 * returns a stream of the keys of this map, which splits the table by index
+	 * range when it is made parallel. this finishes any incremental resize in
+	 * progress
+	 * 
+	 * @return a sequential stream of the keys
+	 */
+	public Stream<K> keyStream() {
+		finishResize();
+		return StreamSupport.stream(
+				new SlotSpliterator<K>(keys, values, tombstone, size, Spliterator.DISTINCT | Spliterator.NONNULL), false);
+	}
+
+	/**
+	 * returns a stream of the values of this map, which splits the table by index
+	 * range when it is made parallel. this finishes any incremental resize in
+	 * progress
+	 * 
+	 * @return a sequential stream of the values
+	 */
+	public Stream<V> valueStream() {
+		finishResize();
+		return StreamSupport.stream(new SlotSpliterator<V>(values, values, tombstone, size, Spliterator.NONNULL),
+				false);
+	}
+
 	@Override
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
@@ -244,6 +1063,19 @@ public class ObjObjMap<K, V> {
 				sb.append(keys[i]).append('=').append(values[i]);
 			}
 		}
+		if (oldValues != null) {
+			for (int i = migrated; i < oldKeys.length; i++) {
+				if (oldValues[i] != TOMBSTONE && oldValues[i] != null) {
+					if (first) {
+						first = false;
+					} else {
+						sb.append(", ");
+					}
+
+					sb.append(oldKeys[i]).append('=').append(oldValues[i]);
+				}
+			}
+		}
 		sb.append('}');
 		return sb.toString();
 	}
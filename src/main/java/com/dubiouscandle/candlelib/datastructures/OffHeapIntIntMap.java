@@ -0,0 +1,323 @@
+package com.dubiouscandle.candlelib.datastructures;
+
+import java.lang.reflect.Field;
+
+import sun.misc.Unsafe;
+
+/**
+ * An int to int map implemented using open addressing and double hashing, like
+ * {@link IntIntMap}, whose slots are stored in native memory instead of on the
+ * heap. The table is indexed with longs, so it can hold more entries than an
+ * array can, and it is invisible to the garbage collector. The memory is only
+ * released by {@link #close()}, after which every method except close throws
+ * an {@link IllegalStateException}.
+ * <p>
+ * This class does not guarantee especially fast putting and contains checking
+ * after many removals. Therefore it is necessary for the user to manually call
+ * {@link #rehash()} when necessary to maintain performance.
+ */
+public class OffHeapIntIntMap implements AutoCloseable {
+	private static final Unsafe UNSAFE;
+
+	static {
+		try {
+			Field field = Unsafe.class.getDeclaredField("theUnsafe");
+			field.setAccessible(true);
+			UNSAFE = (Unsafe) field.get(null);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	/**
+	 * each slot holds its key, its value and its status, in that order
+	 */
+	private static final long SLOT_BYTES = 12;
+	private static final long VALUE_OFFSET = 4;
+	private static final long STATUS_OFFSET = 8;
+
+	/**
+	 * the default return value in {@link #remove(int)}, {@link #put(int, int)}, and
+	 * {@link #get(int)}
+	 */
+	public int defaultValue;
+
+	/**
+	 * the number of key-value pairs in this map. do not modify this field!
+	 */
+	public long size;
+
+	/**
+	 * the address of the first slot, or 0 once this map is closed
+	 */
+	private long address;
+	/**
+	 * the number of slots in this map. always a power of 2
+	 */
+	private long capacity;
+
+	public OffHeapIntIntMap() {
+		size = 0;
+		capacity = 16;
+		address = allocate(capacity);
+	}
+
+	/**
+	 * @param key
+	 * @return the value associated with the specified key, or {@link #defaultValue}
+	 *         if there is none
+	 */
+	public int get(int key) {
+		ensureOpen();
+
+		long slot = slotOf(key);
+		return slot == 0 ? defaultValue : UNSAFE.getInt(slot + VALUE_OFFSET);
+	}
+
+	/**
+	 * removes the specified key and its associated value from this map
+	 * 
+	 * @param key
+	 * @return the value that was associated with the specified key, or
+	 *         {@link #defaultValue} if there was none
+	 */
+	public int remove(int key) {
+		ensureOpen();
+
+		long slot = slotOf(key);
+
+		if (slot == 0) {
+			return defaultValue;
+		}
+
+		UNSAFE.putInt(slot + STATUS_OFFSET, IntIntMap.TOMBSTONE);
+		size--;
+		return UNSAFE.getInt(slot + VALUE_OFFSET);
+	}
+
+	/**
+	 * puts the key value pair into this map
+	 * 
+	 * @param key
+	 * @param value
+	 * @return the overwritten value, or {@link #defaultValue} if there was none
+	 */
+	public int put(int key, int value) {
+		ensureOpen();
+
+		long mask = capacity - 1;
+		long i = key & mask;
+
+		long firstTombstone = -1;
+
+		if (status(i) != IntIntMap.EMPTY) {
+			long d = doubleHash(key);
+			long end = i;
+			do {
+				long slot = address + i * SLOT_BYTES;
+				int status = UNSAFE.getInt(slot + STATUS_OFFSET);
+
+				if (status == IntIntMap.OCCUPIED && UNSAFE.getInt(slot) == key) {
+					int oldValue = UNSAFE.getInt(slot + VALUE_OFFSET);
+					UNSAFE.putInt(slot + VALUE_OFFSET, value);
+					return oldValue;
+				} else if (firstTombstone == -1 && status == IntIntMap.TOMBSTONE) {
+					firstTombstone = i;
+				}
+				i = (i + d) & mask;
+			} while (status(i) != IntIntMap.EMPTY && i != end);
+
+			if (firstTombstone != -1) {
+				i = firstTombstone;
+			}
+		}
+
+		long slot = address + i * SLOT_BYTES;
+		UNSAFE.putInt(slot, key);
+		UNSAFE.putInt(slot + VALUE_OFFSET, value);
+		UNSAFE.putInt(slot + STATUS_OFFSET, IntIntMap.OCCUPIED);
+		size++;
+		if (size << 1 > capacity) {
+			resize(capacity << 1);
+		}
+		return defaultValue;
+	}
+
+	public boolean containsKey(int key) {
+		ensureOpen();
+
+		return slotOf(key) != 0;
+	}
+
+	/**
+	 * @param key
+	 * @return the address of the slot holding the specified key, or 0 if it is not
+	 *         in this map
+	 */
+	private long slotOf(int key) {
+		long mask = capacity - 1;
+		long i = key & mask;
+
+		if (status(i) == IntIntMap.EMPTY) {
+			return 0;
+		}
+
+		long d = doubleHash(key);
+		long end = i;
+
+		do {
+			long slot = address + i * SLOT_BYTES;
+
+			if (UNSAFE.getInt(slot) == key && UNSAFE.getInt(slot + STATUS_OFFSET) == IntIntMap.OCCUPIED) {
+				return slot;
+			}
+
+			i = (i + d) & mask;
+		} while (status(i) != IntIntMap.EMPTY && i != end);
+
+		return 0;
+	}
+
+	/**
+	 * @throws IllegalStateException if this map has been closed
+	 */
+	private void ensureOpen() {
+		if (address == 0) {
+			throw new IllegalStateException("closed");
+		}
+	}
+
+	private int status(long i) {
+		return UNSAFE.getInt(address + i * SLOT_BYTES + STATUS_OFFSET);
+	}
+
+	/**
+	 * @param x
+	 * @return the double hash function for this map
+	 */
+	protected int doubleHash(int x) {
+		x = (x + 0x7ed55d16) + (x << 12);
+		x = (x ^ 0xc761c23c) ^ (x >> 19);
+		x = (x + 0x165667b1) + (x << 5);
+		x = (x + 0xd3a2646c) ^ (x << 9);
+		x = (x + 0xfd7046c5) + (x << 3);
+		x = (x ^ 0xb55a4f09) ^ (x >> 16);
+		return (x & 1) == 1 ? x : (x << 1 | 1);
+	}
+
+	/**
+	 * @return the number of slots in this map
+	 */
+	public long capacity() {
+		ensureOpen();
+
+		return capacity;
+	}
+
+	/**
+	 * clears this map of all keys and values
+	 */
+	public void clear() {
+		ensureOpen();
+
+		size = 0;
+		UNSAFE.setMemory(address, capacity * SLOT_BYTES, (byte) 0);
+	}
+
+	/**
+	 * @param capacity
+	 * @return the address of a new zeroed table with the specified number of slots
+	 */
+	private static long allocate(long capacity) {
+		long bytes = capacity * SLOT_BYTES;
+		long address = UNSAFE.allocateMemory(bytes);
+		UNSAFE.setMemory(address, bytes, (byte) 0);
+		return address;
+	}
+
+	/**
+	 * resized and rehashes all keys and values in this map, then frees the old
+	 * table
+	 * 
+	 * @param newCapacity the new number of slots of this map. this value should be
+	 *                    a power of 2
+	 */
+	private void resize(long newCapacity) {
+		long oldAddress = address;
+		long oldCapacity = capacity;
+
+		address = allocate(newCapacity);
+		capacity = newCapacity;
+
+		long mask = newCapacity - 1;
+
+		for (long i = 0; i < oldCapacity; i++) {
+			long oldSlot = oldAddress + i * SLOT_BYTES;
+
+			if (UNSAFE.getInt(oldSlot + STATUS_OFFSET) != IntIntMap.OCCUPIED) {
+				continue;
+			}
+
+			int key = UNSAFE.getInt(oldSlot);
+			long j = key & mask;
+			long d = doubleHash(key);
+
+			while (status(j) != IntIntMap.EMPTY) {
+				j = (j + d) & mask;
+			}
+
+			long slot = address + j * SLOT_BYTES;
+			UNSAFE.putInt(slot, key);
+			UNSAFE.putInt(slot + VALUE_OFFSET, UNSAFE.getInt(oldSlot + VALUE_OFFSET));
+			UNSAFE.putInt(slot + STATUS_OFFSET, IntIntMap.OCCUPIED);
+		}
+
+		UNSAFE.freeMemory(oldAddress);
+	}
+
+	/**
+	 * rehashes all keys and values in this map
+	 */
+	public void rehash() {
+		ensureOpen();
+
+		resize(capacity);
+	}
+
+	/**
+	 * frees the native memory of this map. closing it again does nothing
+	 */
+	@Override
+	public void close() {
+		if (address != 0) {
+			UNSAFE.freeMemory(address);
+			address = 0;
+			capacity = 0;
+			size = 0;
+		}
+	}
+
+	@Override
+	public String toString() {
+		ensureOpen();
+
+		StringBuilder sb = new StringBuilder();
+		sb.append('{');
+		boolean first = true;
+		for (long i = 0; i < capacity; i++) {
+			long slot = address + i * SLOT_BYTES;
+
+			if (UNSAFE.getInt(slot + STATUS_OFFSET) == IntIntMap.OCCUPIED) {
+				if (first) {
+					first = false;
+				} else {
+					sb.append(", ");
+				}
+
+				sb.append(UNSAFE.getInt(slot)).append('=').append(UNSAFE.getInt(slot + VALUE_OFFSET));
+			}
+		}
+		sb.append('}');
+		return sb.toString();
+	}
+}
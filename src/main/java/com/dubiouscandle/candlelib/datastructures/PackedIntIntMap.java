@@ -0,0 +1,383 @@
+package com.dubiouscandle.candlelib.datastructures;
+
+import com.dubiouscandle.candlelib.function.IntIntConsumer;
+import com.dubiouscandle.candlelib.function.IntIntPredicate;
+
+/**
+ * An int to int map implemented using open addressing and double hashing, like
+ * {@link IntIntMap}, that packs the key and value of every slot into a single
+ * long. A probe only reads one array, and every slot takes 8 bytes instead of
+ * 12. Empty and removed slots are marked with the reserved keys
+ * {@link #EMPTY_KEY} and {@link #TOMBSTONE_KEY}, and the entries of those two
+ * keys are stored outside of the table.
+ * <p>
+ * This class does not guarantee especially fast putting and contains checking
+ * after many removals. Therefore it is necessary for the user to manually call
+ * {@link #rehash()} when necessary to maintain performance.
+ */
+public class PackedIntIntMap {
+	/**
+	 * the key of empty slots
+	 */
+	public static final int EMPTY_KEY = 0;
+	/**
+	 * the key of slots whose entry was removed
+	 */
+	public static final int TOMBSTONE_KEY = Integer.MIN_VALUE;
+
+	/**
+	 * the default return value in {@link #remove(int)}, {@link #put(int, int)}, and
+	 * {@link #get(int)}
+	 */
+	public int defaultValue;
+
+	/**
+	 * the entries of this map for convenient iteration, read with
+	 * {@link #keyOf(long)} and {@link #valueOf(long)}. a slot holds an entry if
+	 * and only if its key is neither {@link #EMPTY_KEY} nor {@link #TOMBSTONE_KEY}.
+	 * the entries of those two keys are not in this array, so use
+	 * {@link #forEach(IntIntConsumer)} to visit every entry. do not modify this
+	 * array!
+	 */
+	public long[] entries;
+
+	/**
+	 * the number of key-value pairs in this map. do not modify this field!
+	 */
+	public int size;
+
+	private boolean hasEmptyKey;
+	private int emptyKeyValue;
+	private boolean hasTombstoneKey;
+	private int tombstoneKeyValue;
+
+	public PackedIntIntMap() {
+		size = 0;
+		entries = new long[16];
+	}
+
+	/**
+	 * @param key
+	 * @return the value associated with the specified key, or {@link #defaultValue}
+	 *         if there is none
+	 */
+	public int get(int key) {
+		if (key == EMPTY_KEY) {
+			return hasEmptyKey ? emptyKeyValue : defaultValue;
+		} else if (key == TOMBSTONE_KEY) {
+			return hasTombstoneKey ? tombstoneKeyValue : defaultValue;
+		}
+
+		int i = indexOf(key);
+		return i == -1 ? defaultValue : valueOf(entries[i]);
+	}
+
+	/**
+	 * removes the specified key and its associated value from this map
+	 * 
+	 * @param key
+	 * @return the value that was associated with the specified key, or
+	 *         {@link #defaultValue} if there was none
+	 */
+	public int remove(int key) {
+		if (key == EMPTY_KEY) {
+			if (!hasEmptyKey) {
+				return defaultValue;
+			}
+			hasEmptyKey = false;
+			size--;
+			return emptyKeyValue;
+		} else if (key == TOMBSTONE_KEY) {
+			if (!hasTombstoneKey) {
+				return defaultValue;
+			}
+			hasTombstoneKey = false;
+			size--;
+			return tombstoneKeyValue;
+		}
+
+		int i = indexOf(key);
+
+		if (i == -1) {
+			return defaultValue;
+		}
+
+		int oldValue = valueOf(entries[i]);
+		entries[i] = entry(TOMBSTONE_KEY, 0);
+		size--;
+		return oldValue;
+	}
+
+	/**
+	 * puts the key value pair into this map
+	 * 
+	 * @param key
+	 * @param value
+	 * @return the overwritten value, or {@link #defaultValue} if there was none
+	 */
+	public int put(int key, int value) {
+		if (key == EMPTY_KEY) {
+			int oldValue = hasEmptyKey ? emptyKeyValue : defaultValue;
+			if (!hasEmptyKey) {
+				hasEmptyKey = true;
+				size++;
+			}
+			emptyKeyValue = value;
+			return oldValue;
+		} else if (key == TOMBSTONE_KEY) {
+			int oldValue = hasTombstoneKey ? tombstoneKeyValue : defaultValue;
+			if (!hasTombstoneKey) {
+				hasTombstoneKey = true;
+				size++;
+			}
+			tombstoneKeyValue = value;
+			return oldValue;
+		}
+
+		int mask = entries.length - 1;
+		int i = key & mask;
+
+		int firstTombstone = -1;
+
+		if (keyOf(entries[i]) != EMPTY_KEY) {
+			int d = doubleHash(key);
+			int end = i;
+			int k;
+			do {
+				k = keyOf(entries[i]);
+				if (k == key) {
+					int oldValue = valueOf(entries[i]);
+					entries[i] = entry(key, value);
+					return oldValue;
+				} else if (firstTombstone == -1 && k == TOMBSTONE_KEY) {
+					firstTombstone = i;
+				}
+				i = (i + d) & mask;
+			} while (keyOf(entries[i]) != EMPTY_KEY && i != end);
+
+			if (firstTombstone != -1) {
+				i = firstTombstone;
+			}
+		}
+
+		entries[i] = entry(key, value);
+		size++;
+		if (size << 1 > entries.length) {
+			resize(entries.length << 1);
+		}
+		return defaultValue;
+	}
+
+	public boolean containsKey(int key) {
+		if (key == EMPTY_KEY) {
+			return hasEmptyKey;
+		} else if (key == TOMBSTONE_KEY) {
+			return hasTombstoneKey;
+		}
+
+		return indexOf(key) != -1;
+	}
+
+	/**
+	 * performs the specified action on every key and value of this map, without
+	 * boxing. unlike iterating {@link #entries}, this also visits the entries of
+	 * {@link #EMPTY_KEY} and {@link #TOMBSTONE_KEY}
+	 * 
+	 * @param action
+	 */
+	public void forEach(IntIntConsumer action) {
+		if (hasEmptyKey) {
+			action.accept(EMPTY_KEY, emptyKeyValue);
+		}
+		if (hasTombstoneKey) {
+			action.accept(TOMBSTONE_KEY, tombstoneKeyValue);
+		}
+
+		for (int i = 0; i < entries.length; i++) {
+			int key = keyOf(entries[i]);
+
+			if (key != EMPTY_KEY && key != TOMBSTONE_KEY) {
+				action.accept(key, valueOf(entries[i]));
+			}
+		}
+	}
+
+	/**
+	 * removes every entry for which the specified filter returns true, including
+	 * the entries of {@link #EMPTY_KEY} and {@link #TOMBSTONE_KEY}
+	 * 
+	 * @param filter
+	 * @return the number of removed entries
+	 */
+	public int removeIf(IntIntPredicate filter) {
+		int removed = 0;
+
+		if (hasEmptyKey && filter.test(EMPTY_KEY, emptyKeyValue)) {
+			hasEmptyKey = false;
+			removed++;
+		}
+		if (hasTombstoneKey && filter.test(TOMBSTONE_KEY, tombstoneKeyValue)) {
+			hasTombstoneKey = false;
+			removed++;
+		}
+
+		for (int i = 0; i < entries.length; i++) {
+			int key = keyOf(entries[i]);
+
+			if (key != EMPTY_KEY && key != TOMBSTONE_KEY && filter.test(key, valueOf(entries[i]))) {
+				entries[i] = entry(TOMBSTONE_KEY, 0);
+				removed++;
+			}
+		}
+
+		size -= removed;
+		return removed;
+	}
+
+	/**
+	 * @param key a key that is neither {@link #EMPTY_KEY} nor
+	 *            {@link #TOMBSTONE_KEY}
+	 * @return the slot of the specified key, or -1 if it is not in the table
+	 */
+	private int indexOf(int key) {
+		int mask = entries.length - 1;
+		int i = key & mask;
+
+		if (keyOf(entries[i]) == EMPTY_KEY) {
+			return -1;
+		}
+
+		int d = doubleHash(key);
+		int end = i;
+
+		do {
+			int k = keyOf(entries[i]);
+
+			if (k == key) {
+				return i;
+			} else if (k == EMPTY_KEY) {
+				return -1;
+			}
+
+			i = (i + d) & mask;
+		} while (i != end);
+
+		return -1;
+	}
+
+	/**
+	 * @param entry
+	 * @return the key of the specified entry
+	 */
+	public static int keyOf(long entry) {
+		return (int) (entry >>> 32);
+	}
+
+	/**
+	 * @param entry
+	 * @return the value of the specified entry
+	 */
+	public static int valueOf(long entry) {
+		return (int) entry;
+	}
+
+	private static long entry(int key, int value) {
+		return (long) key << 32 | (value & 0xffffffffL);
+	}
+
+	/**
+	 * @param x
+	 * @return the double hash function for this map
+	 */
+	protected int doubleHash(int x) {
+		x = (x + 0x7ed55d16) + (x << 12);
+		x = (x ^ 0xc761c23c) ^ (x >> 19);
+		x = (x + 0x165667b1) + (x << 5);
+		x = (x + 0xd3a2646c) ^ (x << 9);
+		x = (x + 0xfd7046c5) + (x << 3);
+		x = (x ^ 0xb55a4f09) ^ (x >> 16);
+		return (x & 1) == 1 ? x : (x << 1 | 1);
+	}
+
+	/**
+	 * clears this map of all keys and values
+	 */
+	public void clear() {
+		size = 0;
+		hasEmptyKey = false;
+		hasTombstoneKey = false;
+		for (int i = 0; i < entries.length; i++) {
+			entries[i] = 0;
+		}
+	}
+
+	/**
+	 * resized and rehashes all keys and values in this map
+	 * 
+	 * @param newSize the new size of the underlying map. this value should be a
+	 *                power of 2
+	 */
+	private void resize(int newSize) {
+		long[] oldEntries = entries;
+		entries = new long[newSize];
+
+		int mask = newSize - 1;
+
+		for (int i = 0; i < oldEntries.length; i++) {
+			int key = keyOf(oldEntries[i]);
+
+			if (key == EMPTY_KEY || key == TOMBSTONE_KEY) {
+				continue;
+			}
+
+			int j = key & mask;
+			int d = doubleHash(key);
+
+			while (keyOf(entries[j]) != EMPTY_KEY) {
+				j = (j + d) & mask;
+			}
+
+			entries[j] = oldEntries[i];
+		}
+	}
+
+	/**
+	 * rehashes all keys and values in this map
+	 */
+	public void rehash() {
+		resize(entries.length);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append('{');
+		boolean first = true;
+		if (hasEmptyKey) {
+			sb.append(EMPTY_KEY).append('=').append(emptyKeyValue);
+			first = false;
+		}
+		if (hasTombstoneKey) {
+			if (!first) {
+				sb.append(", ");
+			}
+			sb.append(TOMBSTONE_KEY).append('=').append(tombstoneKeyValue);
+			first = false;
+		}
+		for (int i = 0; i < entries.length; i++) {
+			int key = keyOf(entries[i]);
+
+			if (key != EMPTY_KEY && key != TOMBSTONE_KEY) {
+				if (first) {
+					first = false;
+				} else {
+					sb.append(", ");
+				}
+
+				sb.append(key).append('=').append(valueOf(entries[i]));
+			}
+		}
+		sb.append('}');
+		return sb.toString();
+	}
+}
@@ -0,0 +1,239 @@
+package com.dubiouscandle.candlelib.datastructures;
+
+/**
+ * a minimal perfect hash function over a set of distinct int hash codes, built
+ * in the style of PTHash. the hash codes are split into buckets, and every
+ * bucket gets a pilot chosen so that the slots of its hash codes are distinct
+ * and not used by an earlier bucket. the largest buckets are placed first,
+ * while most slots are still free. the slot of a hash code is then found with
+ * one pilot lookup and no probing, and n hash codes use exactly n slots.
+ * <p>
+ * the pilots are searched in a table of n / {@link #ALPHA} slots, because
+ * filling the last free slots of an exactly minimal table takes about n pilot
+ * trials each, which makes the build superlinear. the hash codes that land
+ * above n are then moved into the free slots below n through {@link #remap}.
+ */
+final class PerfectHash {
+	/**
+	 * the average number of hash codes per bucket
+	 */
+	private static final int BUCKET_SIZE = 4;
+	/**
+	 * the fraction of the search table that is filled
+	 */
+	private static final double ALPHA = 0.98;
+	/**
+	 * the number of pilots tried for a bucket before the whole build is retried
+	 * with another seed
+	 */
+	private static final int MAX_PILOT = 1 << 22;
+	/**
+	 * the number of seeds tried before giving up. with distinct hash codes a
+	 * single retry is already rare
+	 */
+	private static final int MAX_SEEDS = 64;
+	/**
+	 * the upper 32 bits of the hashes below this go to the dense buckets
+	 */
+	private static final long DENSE_HASHES = (long) (0.6 * (1L << 32));
+
+	final long seed;
+	/**
+	 * the pilot of every bucket
+	 */
+	final int[] pilots;
+	/**
+	 * the number of slots, which is the number of hash codes
+	 */
+	final int n;
+	/**
+	 * the number of slots the pilots were searched in, at least n
+	 */
+	private final int m;
+	/**
+	 * the slot below n of every search slot from n to m
+	 */
+	final int[] remap;
+
+	/**
+	 * the slot of every hash code given to the constructor, in the same order.
+	 * this is only needed while building the frozen table
+	 */
+	int[] slots;
+
+	/**
+	 * @param hashCodes distinct hash codes
+	 */
+	PerfectHash(int[] hashCodes) {
+		n = hashCodes.length;
+		m = (int) Math.min(Integer.MAX_VALUE, (long) Math.ceil(n / ALPHA));
+		pilots = new int[Math.max(1, (n + BUCKET_SIZE - 1) / BUCKET_SIZE)];
+		remap = new int[m - n];
+
+		long seed = 0x9e3779b97f4a7c15L;
+		for (int attempt = 0; !build(hashCodes, seed); attempt++) {
+			if (attempt == MAX_SEEDS) {
+				throw new IllegalStateException("no perfect hash found for " + n + " hash codes");
+			}
+			seed = mix(seed + 1);
+		}
+		this.seed = seed;
+	}
+
+	/**
+	 * @return the slot of the specified hash code, which is only meaningful if it
+	 *         was given to the constructor
+	 */
+	int slotOf(int hashCode) {
+		long h = hash(hashCode, seed);
+		int slot = slot(h, pilots[bucket(h, pilots.length)], m);
+		return slot < n ? slot : remap[slot - n];
+	}
+
+	private boolean build(int[] hashCodes, long seed) {
+		int buckets = pilots.length;
+		long[] hashes = new long[n];
+		int[] bucketSizes = new int[buckets];
+
+		for (int i = 0; i < n; i++) {
+			hashes[i] = hash(hashCodes[i], seed);
+			bucketSizes[bucket(hashes[i], buckets)]++;
+		}
+
+		// counting sort the hash codes by bucket
+		int[] bucketStarts = new int[buckets + 1];
+		for (int b = 0; b < buckets; b++) {
+			bucketStarts[b + 1] = bucketStarts[b] + bucketSizes[b];
+		}
+		int[] byBucket = new int[n];
+		long[] bucketHashes = new long[n];
+		int[] fill = bucketStarts.clone();
+		for (int i = 0; i < n; i++) {
+			int j = fill[bucket(hashes[i], buckets)]++;
+			byBucket[j] = i;
+			bucketHashes[j] = hashes[i];
+		}
+
+		// counting sort the buckets by size, largest first
+		int maxSize = 0;
+		for (int size : bucketSizes) {
+			maxSize = Math.max(maxSize, size);
+		}
+		int[] sizeStarts = new int[maxSize + 2];
+		for (int size : bucketSizes) {
+			sizeStarts[maxSize - size + 1]++;
+		}
+		for (int s = 0; s <= maxSize; s++) {
+			sizeStarts[s + 1] += sizeStarts[s];
+		}
+		int[] order = new int[buckets];
+		for (int b = 0; b < buckets; b++) {
+			order[sizeStarts[maxSize - bucketSizes[b]]++] = b;
+		}
+
+		// one bit per slot, so that the slots that are probed most stay in cache
+		long[] taken = new long[(m + 63) >>> 6];
+		// the slot of every hash code in bucket order, which keeps the search
+		// sequential
+		int[] bucketSlots = new int[n];
+
+		for (int b : order) {
+			int start = bucketStarts[b];
+			int end = bucketStarts[b + 1];
+
+			if (start == end) {
+				break;
+			}
+
+			int pilot = 0;
+			for (;; pilot++) {
+				if (pilot == MAX_PILOT) {
+					return false;
+				}
+
+				int placed = start;
+				for (; placed < end; placed++) {
+					int slot = slot(bucketHashes[placed], pilot, m);
+
+					if ((taken[slot >>> 6] & 1L << slot) != 0) {
+						break;
+					}
+
+					taken[slot >>> 6] |= 1L << slot;
+					bucketSlots[placed] = slot;
+				}
+
+				if (placed == end) {
+					break;
+				}
+
+				// undo the slots of this pilot
+				for (int i = start; i < placed; i++) {
+					taken[bucketSlots[i] >>> 6] &= ~(1L << bucketSlots[i]);
+				}
+			}
+
+			pilots[b] = pilot;
+		}
+
+		// there are as many free slots below n as taken slots from n to m, so
+		// every taken slot above gets its own free slot below
+		int free = 0;
+		for (int slot = n; slot < m; slot++) {
+			if ((taken[slot >>> 6] & 1L << slot) != 0) {
+				while ((taken[free >>> 6] & 1L << free) != 0) {
+					free++;
+				}
+				remap[slot - n] = free++;
+			}
+		}
+		int[] slots = new int[n];
+		for (int i = 0; i < n; i++) {
+			int slot = bucketSlots[i];
+			slots[byBucket[i]] = slot < n ? slot : remap[slot - n];
+		}
+
+		this.slots = slots;
+		return true;
+	}
+
+	/**
+	 * @return a 64 bit hash of the hash code. distinct hash codes always have
+	 *         distinct hashes
+	 */
+	static long hash(int hashCode, long seed) {
+		return mix((hashCode & 0xffffffffL) ^ seed);
+	}
+
+	/**
+	 * 60% of the hash codes go to the first 30% of the buckets, like in PTHash.
+	 * the large buckets this makes are placed while the table is still mostly
+	 * free, and the many small ones that are left are cheap to place when it is
+	 * nearly full
+	 */
+	static int bucket(long h, int buckets) {
+		long x = h >>> 32;
+		long dense = (long) (0.3 * buckets);
+
+		if (x < DENSE_HASHES) {
+			return (int) (x * dense / DENSE_HASHES);
+		}
+		return (int) (dense + (x - DENSE_HASHES) * (buckets - dense) / ((1L << 32) - DENSE_HASHES));
+	}
+
+	static int slot(long h, int pilot, int n) {
+		return (int) (((mix(h ^ pilot * 0x9e3779b97f4a7c15L) & 0xffffffffL) * n) >>> 32);
+	}
+
+	/**
+	 * the finalizer of MurmurHash3, which is a bijection
+	 */
+	static long mix(long x) {
+		x ^= x >>> 33;
+		x *= 0xff51afd7ed558ccdL;
+		x ^= x >>> 33;
+		x *= 0xc4ceb9fe1a85ec53L;
+		x ^= x >>> 33;
+		return x;
+	}
+}
@@ -0,0 +1,982 @@
+package com.dubiouscandle.candlelib.datastructures;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A compressed bitmap of ints in the style of Roaring. the ints are split by
+ * their high 16 bits into chunks of 65536 values, and each chunk that holds
+ * anything is stored in the smallest of three containers: a sorted array of
+ * the low 16 bits for sparse chunks, a bitmap of 1024 longs for dense ones,
+ * and a list of runs for chunks made of long intervals, which only
+ * {@link #runOptimize()} creates. a dense set of ints takes about one bit per
+ * int, and set algebra works on whole containers, mostly with word
+ * operations, instead of element by element.
+ * <p>
+ * the ints are ordered as signed ints, so iteration, {@link #rank(int)} and
+ * {@link #select(long)} agree with {@link java.util.Arrays#sort(int[])}.
+ */
+public class RoaringBitmap {
+	/**
+	 * the most values an array container holds before it becomes a bitmap, which
+	 * is where both take 8 KB
+	 */
+	private static final int ARRAY_MAX = 4096;
+	private static final int WORDS = 1024;
+
+	/**
+	 * the high 16 bits of every container, with the sign bit flipped so that the
+	 * keys sort like signed ints
+	 */
+	private char[] keys;
+	private Container[] containers;
+	/**
+	 * the number of containers
+	 */
+	private int size;
+
+	public RoaringBitmap() {
+		keys = new char[4];
+		containers = new Container[4];
+		size = 0;
+	}
+
+	/**
+	 * @param map
+	 * @return a bitmap of the keys of the specified map. this finishes any
+	 *         incremental resize of the map in progress
+	 */
+	public static RoaringBitmap fromKeys(IntIntMap map) {
+		map.finishResize();
+
+		int[] sorted = new int[map.size];
+		int n = 0;
+		for (int i = 0; i < map.status.length; i++) {
+			if (map.status[i] == IntIntMap.OCCUPIED) {
+				sorted[n++] = map.keys[i];
+			}
+		}
+		Arrays.sort(sorted);
+
+		return fromSorted(sorted, n);
+	}
+
+	/**
+	 * @param values
+	 * @return a bitmap of the specified values, in any order and with any
+	 *         duplicates
+	 */
+	public static RoaringBitmap of(int... values) {
+		int[] sorted = values.clone();
+		Arrays.sort(sorted);
+		return fromSorted(sorted, sorted.length);
+	}
+
+	/**
+	 * builds the containers of sorted values directly, one chunk at a time
+	 */
+	private static RoaringBitmap fromSorted(int[] sorted, int n) {
+		RoaringBitmap bitmap = new RoaringBitmap();
+		int start = 0;
+
+		while (start < n) {
+			char key = high(sorted[start]);
+			int end = start;
+			while (end < n && high(sorted[end]) == key) {
+				end++;
+			}
+
+			// sorted values are appended to the array, which becomes a bitmap once full
+			Container container = new ArrayContainer(Math.min(end - start, ARRAY_MAX));
+			for (int i = start; i < end; i++) {
+				container = container.add(low(sorted[i]));
+			}
+
+			bitmap.append(key, container);
+			start = end;
+		}
+
+		return bitmap;
+	}
+
+	/**
+	 * adds the specified value to this bitmap
+	 * 
+	 * @param x
+	 * @return true if the value was added (the value was not already in the
+	 *         bitmap)
+	 */
+	public boolean add(int x) {
+		char key = high(x);
+		int i = indexOf(key);
+
+		if (i < 0) {
+			i = -i - 1;
+			insert(i, key, new ArrayContainer(4).add(low(x)));
+			return true;
+		}
+
+		long before = containers[i].cardinality();
+		containers[i] = containers[i].add(low(x));
+		return containers[i].cardinality() != before;
+	}
+
+	/**
+	 * removes the specified value from this bitmap
+	 * 
+	 * @param x
+	 * @return true if the value was removed (the value was in this bitmap before)
+	 */
+	public boolean remove(int x) {
+		int i = indexOf(high(x));
+
+		if (i < 0) {
+			return false;
+		}
+
+		long before = containers[i].cardinality();
+		containers[i] = containers[i].remove(low(x));
+
+		if (containers[i].cardinality() == before) {
+			return false;
+		}
+
+		if (containers[i].cardinality() == 0) {
+			size--;
+			System.arraycopy(keys, i + 1, keys, i, size - i);
+			System.arraycopy(containers, i + 1, containers, i, size - i);
+			containers[size] = null;
+		}
+		return true;
+	}
+
+	/**
+	 * @param x
+	 * @return if this bitmap contains x
+	 */
+	public boolean contains(int x) {
+		int i = indexOf(high(x));
+		return i >= 0 && containers[i].contains(low(x));
+	}
+
+	/**
+	 * @return the number of values in this bitmap
+	 */
+	public long cardinality() {
+		long cardinality = 0;
+		for (int i = 0; i < size; i++) {
+			cardinality += containers[i].cardinality();
+		}
+		return cardinality;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @param x
+	 * @return the number of values in this bitmap that are less than or equal to x
+	 */
+	public long rank(int x) {
+		char key = high(x);
+		long rank = 0;
+
+		for (int i = 0; i < size && keys[i] <= key; i++) {
+			if (keys[i] < key) {
+				rank += containers[i].cardinality();
+			} else {
+				rank += containers[i].rank(low(x));
+			}
+		}
+
+		return rank;
+	}
+
+	/**
+	 * @param j
+	 * @return the value of this bitmap with the specified index in ascending
+	 *         order, which must be less than {@link #cardinality()}
+	 */
+	public int select(long j) {
+		for (int i = 0;; i++) {
+			int cardinality = containers[i].cardinality();
+
+			if (j < cardinality) {
+				return value(keys[i], containers[i].select((int) j));
+			}
+
+			j -= cardinality;
+		}
+	}
+
+	/**
+	 * @param other
+	 * @return a new bitmap of the values that are in both bitmaps
+	 */
+	public RoaringBitmap and(RoaringBitmap other) {
+		RoaringBitmap result = new RoaringBitmap();
+		int i = 0;
+		int j = 0;
+
+		while (i < size && j < other.size) {
+			if (keys[i] < other.keys[j]) {
+				i++;
+			} else if (keys[i] > other.keys[j]) {
+				j++;
+			} else {
+				result.appendIfNotEmpty(keys[i], containers[i].and(other.containers[j]));
+				i++;
+				j++;
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * @param other
+	 * @return a new bitmap of the values that are in either bitmap
+	 */
+	public RoaringBitmap or(RoaringBitmap other) {
+		RoaringBitmap result = new RoaringBitmap();
+		int i = 0;
+		int j = 0;
+
+		while (i < size || j < other.size) {
+			if (j == other.size || i < size && keys[i] < other.keys[j]) {
+				result.append(keys[i], containers[i].copy());
+				i++;
+			} else if (i == size || keys[i] > other.keys[j]) {
+				result.append(other.keys[j], other.containers[j].copy());
+				j++;
+			} else {
+				result.append(keys[i], containers[i].or(other.containers[j]));
+				i++;
+				j++;
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * @param other
+	 * @return a new bitmap of the values of this bitmap that are not in the other
+	 */
+	public RoaringBitmap andNot(RoaringBitmap other) {
+		RoaringBitmap result = new RoaringBitmap();
+		int j = 0;
+
+		for (int i = 0; i < size; i++) {
+			while (j < other.size && other.keys[j] < keys[i]) {
+				j++;
+			}
+
+			if (j < other.size && other.keys[j] == keys[i]) {
+				result.appendIfNotEmpty(keys[i], containers[i].andNot(other.containers[j]));
+			} else {
+				result.append(keys[i], containers[i].copy());
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * @param other
+	 * @return a new bitmap of the values that are in exactly one of the bitmaps
+	 */
+	public RoaringBitmap xor(RoaringBitmap other) {
+		RoaringBitmap result = new RoaringBitmap();
+		int i = 0;
+		int j = 0;
+
+		while (i < size || j < other.size) {
+			if (j == other.size || i < size && keys[i] < other.keys[j]) {
+				result.append(keys[i], containers[i].copy());
+				i++;
+			} else if (i == size || keys[i] > other.keys[j]) {
+				result.append(other.keys[j], other.containers[j].copy());
+				j++;
+			} else {
+				result.appendIfNotEmpty(keys[i], containers[i].xor(other.containers[j]));
+				i++;
+				j++;
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * converts every container to a list of runs where that is smaller. this
+	 * pays off for chunks made of long intervals of consecutive values
+	 * 
+	 * @return true if any container was converted
+	 */
+	public boolean runOptimize() {
+		boolean changed = false;
+
+		for (int i = 0; i < size; i++) {
+			if (!(containers[i] instanceof RunContainer)) {
+				RunContainer runs = RunContainer.of(containers[i]);
+
+				if (runs.memoryFootprintBytes() < containers[i].memoryFootprintBytes()) {
+					containers[i] = runs;
+					changed = true;
+				}
+			}
+		}
+
+		return changed;
+	}
+
+	/**
+	 * performs the specified action on every value of this bitmap, in ascending
+	 * order
+	 * 
+	 * @param action
+	 */
+	public void forEach(IntConsumer action) {
+		for (int i = 0; i < size; i++) {
+			containers[i].forEach(keys[i] << 16 ^ 0x80000000, action);
+		}
+	}
+
+	/**
+	 * @return a new vector of the values of this bitmap in ascending order
+	 */
+	public IntVector toIntVector() {
+		IntVector vector = new IntVector();
+		forEach(vector::add);
+		return vector;
+	}
+
+	/**
+	 * @return the number of bytes of the arrays of this bitmap
+	 */
+	public long memoryFootprintBytes() {
+		long bytes = (long) keys.length * Character.BYTES;
+		for (int i = 0; i < size; i++) {
+			bytes += containers[i].memoryFootprintBytes();
+		}
+		return bytes;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append('[');
+		forEach(x -> {
+			if (sb.length() > 1) {
+				sb.append(", ");
+			}
+			sb.append(x);
+		});
+		sb.append(']');
+		return sb.toString();
+	}
+
+	/**
+	 * @param key
+	 * @return the index of the container with the specified key, or
+	 *         -(insertion index)-1 if there is none
+	 */
+	private int indexOf(char key) {
+		// most updates go to the last container
+		if (size > 0 && keys[size - 1] == key) {
+			return size - 1;
+		}
+
+		return Arrays.binarySearch(keys, 0, size, key);
+	}
+
+	private void insert(int i, char key, Container container) {
+		if (size == keys.length) {
+			keys = Arrays.copyOf(keys, size << 1);
+			containers = Arrays.copyOf(containers, size << 1);
+		}
+
+		System.arraycopy(keys, i, keys, i + 1, size - i);
+		System.arraycopy(containers, i, containers, i + 1, size - i);
+		keys[i] = key;
+		containers[i] = container;
+		size++;
+	}
+
+	private void append(char key, Container container) {
+		insert(size, key, container);
+	}
+
+	private void appendIfNotEmpty(char key, Container container) {
+		if (container.cardinality() != 0) {
+			append(key, container);
+		}
+	}
+
+	private static char high(int x) {
+		return (char) ((x ^ 0x80000000) >>> 16);
+	}
+
+	private static char low(int x) {
+		return (char) x;
+	}
+
+	private static int value(char key, char low) {
+		return (key << 16 | low) ^ 0x80000000;
+	}
+
+	/**
+	 * @param words a bitmap of 1024 longs
+	 * @return the smaller of an array and a bitmap container for the bits
+	 */
+	private static Container fromWords(long[] words) {
+		int cardinality = 0;
+		for (long word : words) {
+			cardinality += Long.bitCount(word);
+		}
+
+		if (cardinality > ARRAY_MAX) {
+			return new BitmapContainer(words, cardinality);
+		}
+
+		ArrayContainer array = new ArrayContainer(cardinality);
+		for (int w = 0; w < WORDS; w++) {
+			long word = words[w];
+			while (word != 0) {
+				array.values[array.cardinality++] = (char) (w << 6 | Long.numberOfTrailingZeros(word));
+				word &= word - 1;
+			}
+		}
+		return array;
+	}
+
+	/**
+	 * the low 16 bits of the values of one chunk
+	 */
+	private static abstract class Container {
+		abstract int cardinality();
+
+		abstract boolean contains(char x);
+
+		/**
+		 * @return this container, or a container of another type if this one can not
+		 *         hold the new value
+		 */
+		abstract Container add(char x);
+
+		/**
+		 * @return this container, or a container of another type that is smaller
+		 */
+		abstract Container remove(char x);
+
+		/**
+		 * @return the number of values less than or equal to x
+		 */
+		abstract int rank(char x);
+
+		abstract char select(int j);
+
+		/**
+		 * @return a new bitmap of 1024 longs of the values
+		 */
+		abstract long[] toWords();
+
+		abstract Container copy();
+
+		abstract void forEach(int base, IntConsumer action);
+
+		abstract long memoryFootprintBytes();
+
+		Container and(Container other) {
+			if (other instanceof ArrayContainer) {
+				return other.and(this);
+			}
+
+			long[] words = toWords();
+			long[] otherWords = other.toWords();
+			for (int w = 0; w < WORDS; w++) {
+				words[w] &= otherWords[w];
+			}
+			return fromWords(words);
+		}
+
+		Container or(Container other) {
+			long[] words = toWords();
+			long[] otherWords = other.toWords();
+			for (int w = 0; w < WORDS; w++) {
+				words[w] |= otherWords[w];
+			}
+			return fromWords(words);
+		}
+
+		Container andNot(Container other) {
+			long[] words = toWords();
+			long[] otherWords = other.toWords();
+			for (int w = 0; w < WORDS; w++) {
+				words[w] &= ~otherWords[w];
+			}
+			return fromWords(words);
+		}
+
+		Container xor(Container other) {
+			long[] words = toWords();
+			long[] otherWords = other.toWords();
+			for (int w = 0; w < WORDS; w++) {
+				words[w] ^= otherWords[w];
+			}
+			return fromWords(words);
+		}
+	}
+
+	/**
+	 * a sorted array of at most {@link #ARRAY_MAX} values
+	 */
+	private static final class ArrayContainer extends Container {
+		char[] values;
+		int cardinality;
+
+		ArrayContainer(int capacity) {
+			values = new char[Math.max(capacity, 4)];
+		}
+
+		@Override
+		int cardinality() {
+			return cardinality;
+		}
+
+		@Override
+		boolean contains(char x) {
+			return Arrays.binarySearch(values, 0, cardinality, x) >= 0;
+		}
+
+		@Override
+		Container add(char x) {
+			int i = cardinality == 0 || values[cardinality - 1] < x ? -cardinality - 1
+					: Arrays.binarySearch(values, 0, cardinality, x);
+
+			if (i >= 0) {
+				return this;
+			}
+
+			if (cardinality == ARRAY_MAX) {
+				return toBitmap().add(x);
+			}
+
+			i = -i - 1;
+			if (cardinality == values.length) {
+				values = Arrays.copyOf(values, Math.min(cardinality << 1, ARRAY_MAX));
+			}
+			System.arraycopy(values, i, values, i + 1, cardinality - i);
+			values[i] = x;
+			cardinality++;
+			return this;
+		}
+
+		@Override
+		Container remove(char x) {
+			int i = Arrays.binarySearch(values, 0, cardinality, x);
+
+			if (i >= 0) {
+				cardinality--;
+				System.arraycopy(values, i + 1, values, i, cardinality - i);
+			}
+			return this;
+		}
+
+		@Override
+		int rank(char x) {
+			int i = Arrays.binarySearch(values, 0, cardinality, x);
+			return i >= 0 ? i + 1 : -i - 1;
+		}
+
+		@Override
+		char select(int j) {
+			return values[j];
+		}
+
+		BitmapContainer toBitmap() {
+			return new BitmapContainer(toWords(), cardinality);
+		}
+
+		@Override
+		long[] toWords() {
+			long[] words = new long[WORDS];
+			for (int i = 0; i < cardinality; i++) {
+				words[values[i] >>> 6] |= 1L << values[i];
+			}
+			return words;
+		}
+
+		@Override
+		Container copy() {
+			ArrayContainer copy = new ArrayContainer(0);
+			copy.values = Arrays.copyOf(values, cardinality);
+			copy.cardinality = cardinality;
+			return copy;
+		}
+
+		@Override
+		void forEach(int base, IntConsumer action) {
+			for (int i = 0; i < cardinality; i++) {
+				action.accept(base | values[i]);
+			}
+		}
+
+		@Override
+		long memoryFootprintBytes() {
+			return (long) values.length * Character.BYTES;
+		}
+
+		@Override
+		Container and(Container other) {
+			ArrayContainer result = new ArrayContainer(cardinality);
+
+			if (other instanceof ArrayContainer) {
+				// merge the two sorted arrays
+				ArrayContainer array = (ArrayContainer) other;
+				int i = 0;
+				int j = 0;
+
+				while (i < cardinality && j < array.cardinality) {
+					if (values[i] < array.values[j]) {
+						i++;
+					} else if (values[i] > array.values[j]) {
+						j++;
+					} else {
+						result.values[result.cardinality++] = values[i];
+						i++;
+						j++;
+					}
+				}
+			} else {
+				for (int i = 0; i < cardinality; i++) {
+					if (other.contains(values[i])) {
+						result.values[result.cardinality++] = values[i];
+					}
+				}
+			}
+
+			return result;
+		}
+
+		@Override
+		Container or(Container other) {
+			if (!(other instanceof ArrayContainer) || cardinality + other.cardinality() > ARRAY_MAX) {
+				return super.or(other);
+			}
+
+			ArrayContainer array = (ArrayContainer) other;
+			ArrayContainer result = new ArrayContainer(cardinality + array.cardinality);
+			int i = 0;
+			int j = 0;
+
+			while (i < cardinality || j < array.cardinality) {
+				if (j == array.cardinality || i < cardinality && values[i] < array.values[j]) {
+					result.values[result.cardinality++] = values[i++];
+				} else if (i == cardinality || values[i] > array.values[j]) {
+					result.values[result.cardinality++] = array.values[j++];
+				} else {
+					result.values[result.cardinality++] = values[i];
+					i++;
+					j++;
+				}
+			}
+
+			return result;
+		}
+
+		@Override
+		Container andNot(Container other) {
+			ArrayContainer result = new ArrayContainer(cardinality);
+
+			for (int i = 0; i < cardinality; i++) {
+				if (!other.contains(values[i])) {
+					result.values[result.cardinality++] = values[i];
+				}
+			}
+
+			return result;
+		}
+
+		@Override
+		Container xor(Container other) {
+			if (!(other instanceof ArrayContainer) || cardinality + other.cardinality() > ARRAY_MAX) {
+				return super.xor(other);
+			}
+
+			ArrayContainer array = (ArrayContainer) other;
+			ArrayContainer result = new ArrayContainer(cardinality + array.cardinality);
+			int i = 0;
+			int j = 0;
+
+			while (i < cardinality || j < array.cardinality) {
+				if (j == array.cardinality || i < cardinality && values[i] < array.values[j]) {
+					result.values[result.cardinality++] = values[i++];
+				} else if (i == cardinality || values[i] > array.values[j]) {
+					result.values[result.cardinality++] = array.values[j++];
+				} else {
+					i++;
+					j++;
+				}
+			}
+
+			return result;
+		}
+	}
+
+	/**
+	 * a bitmap of 1024 longs for more than {@link #ARRAY_MAX} values
+	 */
+	private static final class BitmapContainer extends Container {
+		final long[] words;
+		int cardinality;
+
+		BitmapContainer(long[] words, int cardinality) {
+			this.words = words;
+			this.cardinality = cardinality;
+		}
+
+		@Override
+		int cardinality() {
+			return cardinality;
+		}
+
+		@Override
+		boolean contains(char x) {
+			return (words[x >>> 6] & 1L << x) != 0;
+		}
+
+		@Override
+		Container add(char x) {
+			long word = words[x >>> 6];
+			long added = word | 1L << x;
+
+			if (added != word) {
+				words[x >>> 6] = added;
+				cardinality++;
+			}
+			return this;
+		}
+
+		@Override
+		Container remove(char x) {
+			long word = words[x >>> 6];
+			long removed = word & ~(1L << x);
+
+			if (removed != word) {
+				words[x >>> 6] = removed;
+				cardinality--;
+
+				if (cardinality <= ARRAY_MAX) {
+					return fromWords(words);
+				}
+			}
+			return this;
+		}
+
+		@Override
+		int rank(char x) {
+			int w = x >>> 6;
+			int rank = 0;
+			for (int i = 0; i < w; i++) {
+				rank += Long.bitCount(words[i]);
+			}
+			// every bit of the word up to and including x
+			return rank + Long.bitCount(words[w] & (-1L >>> (63 - (x & 63))));
+		}
+
+		@Override
+		char select(int j) {
+			int w = 0;
+			int count;
+			while ((count = Long.bitCount(words[w])) <= j) {
+				j -= count;
+				w++;
+			}
+
+			long word = words[w];
+			for (; j > 0; j--) {
+				word &= word - 1;
+			}
+			return (char) (w << 6 | Long.numberOfTrailingZeros(word));
+		}
+
+		@Override
+		long[] toWords() {
+			return words.clone();
+		}
+
+		@Override
+		Container copy() {
+			return new BitmapContainer(words.clone(), cardinality);
+		}
+
+		@Override
+		void forEach(int base, IntConsumer action) {
+			for (int w = 0; w < WORDS; w++) {
+				long word = words[w];
+				while (word != 0) {
+					action.accept(base | w << 6 | Long.numberOfTrailingZeros(word));
+					word &= word - 1;
+				}
+			}
+		}
+
+		@Override
+		long memoryFootprintBytes() {
+			return (long) WORDS * Long.BYTES;
+		}
+	}
+
+	/**
+	 * a sorted list of runs of consecutive values, each stored as its first value
+	 * and its length minus one
+	 */
+	private static final class RunContainer extends Container {
+		final char[] runs;
+		final int runCount;
+		final int cardinality;
+
+		private RunContainer(char[] runs, int runCount) {
+			this.runs = runs;
+			this.runCount = runCount;
+
+			int cardinality = 0;
+			for (int r = 0; r < runCount; r++) {
+				cardinality += runs[2 * r + 1] + 1;
+			}
+			this.cardinality = cardinality;
+		}
+
+		static RunContainer of(Container container) {
+			long[] words = container.toWords();
+			char[] runs = new char[8];
+			int runCount = 0;
+			int start = -1;
+
+			for (int x = 0; x <= 1 << 16; x++) {
+				boolean set = x < 1 << 16 && (words[x >>> 6] & 1L << x) != 0;
+
+				if (set && start == -1) {
+					start = x;
+				} else if (!set && start != -1) {
+					if (2 * runCount == runs.length) {
+						runs = Arrays.copyOf(runs, runs.length << 1);
+					}
+					runs[2 * runCount] = (char) start;
+					runs[2 * runCount + 1] = (char) (x - 1 - start);
+					runCount++;
+					start = -1;
+				}
+			}
+
+			return new RunContainer(Arrays.copyOf(runs, 2 * runCount), runCount);
+		}
+
+		@Override
+		int cardinality() {
+			return cardinality;
+		}
+
+		/**
+		 * @return the index of the last run that starts at or before x, or -1
+		 */
+		private int runOf(char x) {
+			int lo = 0;
+			int hi = runCount - 1;
+
+			while (lo <= hi) {
+				int mid = (lo + hi) >>> 1;
+
+				if (runs[2 * mid] <= x) {
+					lo = mid + 1;
+				} else {
+					hi = mid - 1;
+				}
+			}
+
+			return hi;
+		}
+
+		@Override
+		boolean contains(char x) {
+			int r = runOf(x);
+			return r != -1 && x - runs[2 * r] <= runs[2 * r + 1];
+		}
+
+		// runs are only created by runOptimize, so updates go through the other
+		// containers
+		@Override
+		Container add(char x) {
+			return contains(x) ? this : fromWords(toWords()).add(x);
+		}
+
+		@Override
+		Container remove(char x) {
+			return contains(x) ? fromWords(toWords()).remove(x) : this;
+		}
+
+		@Override
+		int rank(char x) {
+			int r = runOf(x);
+			int rank = 0;
+
+			for (int i = 0; i < r; i++) {
+				rank += runs[2 * i + 1] + 1;
+			}
+			if (r != -1) {
+				rank += Math.min(x - runs[2 * r], runs[2 * r + 1]) + 1;
+			}
+			return rank;
+		}
+
+		@Override
+		char select(int j) {
+			int r = 0;
+			while (j > runs[2 * r + 1]) {
+				j -= runs[2 * r + 1] + 1;
+				r++;
+			}
+			return (char) (runs[2 * r] + j);
+		}
+
+		@Override
+		long[] toWords() {
+			long[] words = new long[WORDS];
+			for (int r = 0; r < runCount; r++) {
+				int start = runs[2 * r];
+				int end = start + runs[2 * r + 1];
+
+				for (int x = start; x <= end; x++) {
+					words[x >>> 6] |= 1L << x;
+				}
+			}
+			return words;
+		}
+
+		// run containers are never modified, so they can be shared
+		@Override
+		Container copy() {
+			return this;
+		}
+
+		@Override
+		void forEach(int base, IntConsumer action) {
+			for (int r = 0; r < runCount; r++) {
+				int start = runs[2 * r];
+				int end = start + runs[2 * r + 1];
+
+				for (int x = start; x <= end; x++) {
+					action.accept(base | x);
+				}
+			}
+		}
+
+		@Override
+		long memoryFootprintBytes() {
+			return (long) runs.length * Character.BYTES;
+		}
+	}
+}
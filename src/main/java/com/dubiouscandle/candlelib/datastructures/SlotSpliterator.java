@@ -0,0 +1,103 @@
+package com.dubiouscandle.candlelib.datastructures;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * a spliterator over the occupied slots of an open addressing table of
+ * objects, where empty slots hold null and removed ones hold a tombstone. it
+ * splits the table by index range, so the halves are found without touching
+ * any slot. only the spliterator of the whole table knows its exact size, the
+ * halves estimate theirs as half of it.
+ * 
+ * @param <T> the type of the items
+ */
+final class SlotSpliterator<T> implements Spliterator<T> {
+	private final Object[] items;
+	/**
+	 * the array whose null and tombstone slots are skipped, which is the values
+	 * of a map when its keys are iterated
+	 */
+	private final Object[] slots;
+	private final Object tombstone;
+	private int index;
+	private final int fence;
+	private long estimate;
+	private int characteristics;
+
+	/**
+	 * @param items           the items to iterate
+	 * @param slots           the array that tells which slots are occupied
+	 * @param tombstone
+	 * @param size            the number of occupied slots
+	 * @param characteristics the characteristics of the items besides
+	 *                        {@link Spliterator#SIZED}
+	 */
+	SlotSpliterator(Object[] items, Object[] slots, Object tombstone, int size, int characteristics) {
+		this(items, slots, tombstone, 0, slots.length, size, characteristics | SIZED);
+	}
+
+	private SlotSpliterator(Object[] items, Object[] slots, Object tombstone, int index, int fence, long estimate,
+			int characteristics) {
+		this.items = items;
+		this.slots = slots;
+		this.tombstone = tombstone;
+		this.index = index;
+		this.fence = fence;
+		this.estimate = estimate;
+		this.characteristics = characteristics;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean tryAdvance(Consumer<? super T> action) {
+		while (index < fence) {
+			int i = index++;
+
+			if (slots[i] != null && slots[i] != tombstone) {
+				action.accept((T) items[i]);
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void forEachRemaining(Consumer<? super T> action) {
+		Object[] items = this.items;
+		Object[] slots = this.slots;
+
+		for (int i = index; i < fence; i++) {
+			if (slots[i] != null && slots[i] != tombstone) {
+				action.accept((T) items[i]);
+			}
+		}
+		index = fence;
+	}
+
+	@Override
+	public Spliterator<T> trySplit() {
+		int lo = index;
+		int mid = (lo + fence) >>> 1;
+
+		if (lo >= mid) {
+			return null;
+		}
+
+		index = mid;
+		estimate >>>= 1;
+		characteristics &= ~SIZED;
+		return new SlotSpliterator<>(items, slots, tombstone, lo, mid, estimate, characteristics);
+	}
+
+	@Override
+	public long estimateSize() {
+		return estimate;
+	}
+
+	@Override
+	public int characteristics() {
+		return characteristics;
+	}
+}
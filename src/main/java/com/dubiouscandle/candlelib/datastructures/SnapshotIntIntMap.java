@@ -0,0 +1,114 @@
+package com.dubiouscandle.candlelib.datastructures;
+
+import java.util.function.Consumer;
+
+/**
+ * a read-mostly int to int map that is shared between threads by publishing
+ * immutable snapshots, like {@link SnapshotObjObjMap}. readers probe the
+ * current {@link IntIntMap} without any locking, and writers publish a changed
+ * copy of it with a single volatile write.
+ */
+public class SnapshotIntIntMap {
+	private volatile IntIntMap current;
+
+	public SnapshotIntIntMap() {
+		current = new IntIntMap();
+	}
+
+	/**
+	 * @param map the initial entries and default value, which are copied. this
+	 *            finishes any incremental resize of the specified map in
+	 *            progress
+	 */
+	public SnapshotIntIntMap(IntIntMap map) {
+		current = copy(map);
+	}
+
+	/**
+	 * @param key
+	 * @return the value associated with the specified key in the current
+	 *         snapshot, or its {@link IntIntMap#defaultValue} if there is none
+	 */
+	public int get(int key) {
+		return current.get(key);
+	}
+
+	public boolean containsKey(int key) {
+		return current.containsKey(key);
+	}
+
+	/**
+	 * @return the number of key-value pairs in the current snapshot
+	 */
+	public int size() {
+		return current.size;
+	}
+
+	/**
+	 * reads of the returned map are consistent with each other no matter how
+	 * many updates are published in the meantime. do not modify the returned
+	 * map!
+	 * 
+	 * @return the current snapshot
+	 */
+	public IntIntMap snapshot() {
+		return current;
+	}
+
+	/**
+	 * copies the current snapshot, applies the specified changes to the copy and
+	 * publishes it. updates are serialized with each other but never block
+	 * readers
+	 * 
+	 * @param changes is given the copy, and must not keep a reference to it
+	 */
+	public synchronized void update(Consumer<? super IntIntMap> changes) {
+		IntIntMap next = copy(current);
+		changes.accept(next);
+		// readers must never see an incremental resize in progress
+		next.finishResize();
+		current = next;
+	}
+
+	/**
+	 * puts the key value pair into a new snapshot. this copies the whole map, so
+	 * several changes should be batched with {@link #update(Consumer)} instead
+	 * 
+	 * @param key
+	 * @param value
+	 */
+	public void put(int key, int value) {
+		update(map -> map.put(key, value));
+	}
+
+	/**
+	 * removes the specified key in a new snapshot. this copies the whole map, so
+	 * several changes should be batched with {@link #update(Consumer)} instead
+	 * 
+	 * @param key
+	 */
+	public void remove(int key) {
+		update(map -> map.remove(key));
+	}
+
+	/**
+	 * publishes a new empty snapshot with the same default value
+	 */
+	public synchronized void clear() {
+		IntIntMap next = new IntIntMap();
+		next.defaultValue = current.defaultValue;
+		current = next;
+	}
+
+	private static IntIntMap copy(IntIntMap map) {
+		IntIntMap copy = new IntIntMap(map.size);
+		copy.defaultValue = map.defaultValue;
+		map.forEach(copy::put);
+		return copy;
+	}
+
+	@Override
+	public String toString() {
+		return current.toString();
+	}
+}
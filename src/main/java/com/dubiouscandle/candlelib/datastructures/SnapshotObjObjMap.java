@@ -0,0 +1,123 @@
+package com.dubiouscandle.candlelib.datastructures;
+
+import java.util.function.Consumer;
+
+/**
+ * a read-mostly map that is shared between threads by publishing immutable
+ * snapshots. readers probe the current {@link ObjObjMap} without any locking
+ * or atomic operations other than the volatile read of the snapshot itself.
+ * writers copy the current snapshot, apply a batch of changes to the copy and
+ * publish it with a single volatile write, so every update costs a copy of the
+ * whole map and should be rare compared to reads.
+ * <p>
+ * a reader always sees either all or none of the changes of an update. the
+ * behavior of null keys and values is undefined.
+ */
+public class SnapshotObjObjMap<K, V> {
+	private volatile ObjObjMap<K, V> current;
+
+	public SnapshotObjObjMap() {
+		current = new ObjObjMap<>();
+	}
+
+	/**
+	 * @param strategy hashes and compares the keys of every snapshot
+	 */
+	public SnapshotObjObjMap(HashingStrategy<? super K> strategy) {
+		current = new ObjObjMap<>(strategy);
+	}
+
+	/**
+	 * @param map the initial entries and hashing strategy, which are copied.
+	 *            this finishes any incremental resize of the specified map in
+	 *            progress
+	 */
+	public SnapshotObjObjMap(ObjObjMap<K, V> map) {
+		current = copy(map);
+	}
+
+	/**
+	 * @param key
+	 * @return the value associated with the specified key in the current
+	 *         snapshot, or null if there is none
+	 */
+	public V get(K key) {
+		return current.get(key);
+	}
+
+	public boolean containsKey(K key) {
+		return current.containsKey(key);
+	}
+
+	/**
+	 * @return the number of key-value pairs in the current snapshot
+	 */
+	public int size() {
+		return current.size;
+	}
+
+	/**
+	 * reads of the returned map are consistent with each other no matter how
+	 * many updates are published in the meantime. do not modify the returned
+	 * map!
+	 * 
+	 * @return the current snapshot
+	 */
+	public ObjObjMap<K, V> snapshot() {
+		return current;
+	}
+
+	/**
+	 * copies the current snapshot, applies the specified changes to the copy and
+	 * publishes it. updates are serialized with each other but never block
+	 * readers
+	 * 
+	 * @param changes is given the copy, and must not keep a reference to it
+	 */
+	public synchronized void update(Consumer<? super ObjObjMap<K, V>> changes) {
+		ObjObjMap<K, V> next = copy(current);
+		changes.accept(next);
+		// readers must never see an incremental resize in progress
+		next.finishResize();
+		current = next;
+	}
+
+	/**
+	 * puts the key value pair into a new snapshot. this copies the whole map, so
+	 * several changes should be batched with {@link #update(Consumer)} instead
+	 * 
+	 * @param key
+	 * @param value
+	 */
+	public void put(K key, V value) {
+		update(map -> map.put(key, value));
+	}
+
+	/**
+	 * removes the specified key in a new snapshot. this copies the whole map, so
+	 * several changes should be batched with {@link #update(Consumer)} instead
+	 * 
+	 * @param key
+	 */
+	public void remove(K key) {
+		update(map -> map.remove(key));
+	}
+
+	/**
+	 * publishes a new empty snapshot with the same hashing strategy
+	 */
+	public synchronized void clear() {
+		current = new ObjObjMap<>(current.hashingStrategy());
+	}
+
+	private static <K, V> ObjObjMap<K, V> copy(ObjObjMap<K, V> map) {
+		ObjObjMap<K, V> copy = new ObjObjMap<>(map.size, 0.5f, map.hashingStrategy());
+		map.forEach(copy::put);
+		return copy;
+	}
+
+	@Override
+	public String toString() {
+		return current.toString();
+	}
+}
@@ -0,0 +1,345 @@
+package com.dubiouscandle.candlelib.datastructures;
+
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * An Object to Object map implemented using open addressing over groups of 16
+ * slots, in the style of SwissTable. Every slot has a control byte holding 7
+ * bits of the hash of its key, and the 16 control bytes of a group are compared
+ * at once with the Vector API, so equals is only called on keys whose hash
+ * fragment matches. This lets the table run at a load factor of 7/8.
+ * <p>
+ * This class uses the incubating jdk.incubator.vector module, which must be
+ * added with --add-modules jdk.incubator.vector when running. the behavior of
+ * null keys is undefined.
+ */
+public class SwissMap<K, V> {
+	private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_128;
+	private static final int GROUP_SHIFT = 4;
+
+	/**
+	 * the control byte of a slot that has never held an entry
+	 */
+	public static final byte EMPTY = (byte) 0x80;
+	/**
+	 * the control byte of a slot whose entry was removed
+	 */
+	public static final byte DELETED = (byte) 0xfe;
+
+	/**
+	 * the control bytes of this map for convenient iteration. a slot holds an entry
+	 * if and only if its control byte is not negative. do not modify this array!
+	 */
+	public byte[] control;
+
+	/**
+	 * the keys of this map for convenient iteration. do not modify this array!
+	 */
+	public K[] keys;
+
+	/**
+	 * the values of this map for convenient iteration. do not modify this array!
+	 */
+	public V[] values;
+
+	/**
+	 * the number of key-value pairs in this map. do not modify this field!
+	 */
+	public int size;
+
+	/**
+	 * the number of {@link #EMPTY} slots that can still be filled before the map
+	 * has to be resized
+	 */
+	private int growthLeft;
+
+	@SuppressWarnings("unchecked")
+	public SwissMap() {
+		size = 0;
+		control = new byte[16];
+		keys = (K[]) new Object[16];
+		values = (V[]) new Object[16];
+		clear();
+	}
+
+	/**
+	 * @param key
+	 * @return the value associated with the specified key, or null if there is none
+	 */
+	public V get(K key) {
+		int i = indexOf(key);
+		return i == -1 ? null : values[i];
+	}
+
+	public boolean containsKey(K key) {
+		return indexOf(key) != -1;
+	}
+
+	/**
+	 * removes the specified key and its associated value from this map
+	 * 
+	 * @param key
+	 * @return the value that was associated with the specified key, or null if
+	 *         there was none
+	 */
+	public V remove(K key) {
+		int i = indexOf(key);
+
+		if (i == -1) {
+			return null;
+		}
+
+		V oldValue = values[i];
+		removeAt(i);
+		return oldValue;
+	}
+
+	/**
+	 * removes the entry in the specified slot
+	 * 
+	 * @param i
+	 */
+	private void removeAt(int i) {
+		keys[i] = null;
+		values[i] = null;
+		size--;
+
+		// a probe never continues past a group with an empty slot, so no probe chain
+		// runs through this slot if its group has one
+		int base = i & -(1 << GROUP_SHIFT);
+		if (ByteVector.fromArray(SPECIES, control, base).eq(EMPTY).anyTrue()) {
+			control[i] = EMPTY;
+			growthLeft++;
+		} else {
+			control[i] = DELETED;
+		}
+	}
+
+	/**
+	 * puts the key value pair into this map
+	 * 
+	 * @param key
+	 * @param value
+	 * @return the overwritten value, or null if there was none
+	 */
+	public V put(K key, V value) {
+		int h = hash(key.hashCode());
+		byte h2 = (byte) (h & 0x7f);
+		int groupMask = (control.length >>> GROUP_SHIFT) - 1;
+		int g = (h >>> 7) & groupMask;
+		int free = -1;
+
+		for (int step = 1;; step++) {
+			int base = g << GROUP_SHIFT;
+			ByteVector group = ByteVector.fromArray(SPECIES, control, base);
+
+			long matches = group.eq(h2).toLong();
+			while (matches != 0) {
+				int i = base + Long.numberOfTrailingZeros(matches);
+				if (key.equals(keys[i])) {
+					V oldValue = values[i];
+					values[i] = value;
+					return oldValue;
+				}
+				matches &= matches - 1;
+			}
+
+			if (free == -1) {
+				long available = group.lt((byte) 0).toLong();
+				if (available != 0) {
+					free = base + Long.numberOfTrailingZeros(available);
+				}
+			}
+
+			if (group.eq(EMPTY).anyTrue()) {
+				break;
+			}
+
+			g = (g + step) & groupMask;
+		}
+
+		if (control[free] == EMPTY) {
+			if (growthLeft == 0) {
+				// rebuild at the same size if most of the used up slots are deleted
+				int limit = control.length - (control.length >>> 3);
+				resize(size >= limit >>> 1 ? control.length << 1 : control.length);
+				free = findFree(h);
+			}
+			growthLeft--;
+		}
+
+		control[free] = h2;
+		keys[free] = key;
+		values[free] = value;
+		size++;
+		return null;
+	}
+
+	/**
+	 * @param key
+	 * @return the slot of the specified key, or -1 if it is not in this map
+	 */
+	private int indexOf(K key) {
+		int h = hash(key.hashCode());
+		byte h2 = (byte) (h & 0x7f);
+		int groupMask = (control.length >>> GROUP_SHIFT) - 1;
+		int g = (h >>> 7) & groupMask;
+
+		for (int step = 1;; step++) {
+			int base = g << GROUP_SHIFT;
+			ByteVector group = ByteVector.fromArray(SPECIES, control, base);
+
+			long matches = group.eq(h2).toLong();
+			while (matches != 0) {
+				int i = base + Long.numberOfTrailingZeros(matches);
+				if (key.equals(keys[i])) {
+					return i;
+				}
+				matches &= matches - 1;
+			}
+
+			if (group.eq(EMPTY).anyTrue()) {
+				return -1;
+			}
+
+			g = (g + step) & groupMask;
+		}
+	}
+
+	/**
+	 * @param h the hash of a key that is not in this map
+	 * @return the first slot along the probe sequence of the hash that does not
+	 *         hold an entry
+	 */
+	private int findFree(int h) {
+		int groupMask = (control.length >>> GROUP_SHIFT) - 1;
+		int g = (h >>> 7) & groupMask;
+
+		for (int step = 1;; step++) {
+			int base = g << GROUP_SHIFT;
+			long available = ByteVector.fromArray(SPECIES, control, base).lt((byte) 0).toLong();
+
+			if (available != 0) {
+				return base + Long.numberOfTrailingZeros(available);
+			}
+
+			g = (g + step) & groupMask;
+		}
+	}
+
+	/**
+	 * @param x
+	 * @return the hash function for this map. the low 7 bits are stored in the
+	 *         control bytes and the rest select the first group
+	 */
+	protected int hash(int x) {
+		x *= 0x9e3779b9;
+		return x ^ (x >>> 16);
+	}
+
+	/**
+	 * clears this map of all keys and values
+	 */
+	public void clear() {
+		size = 0;
+		growthLeft = control.length - (control.length >>> 3);
+		for (int i = 0; i < control.length; i++) {
+			control[i] = EMPTY;
+			keys[i] = null;
+			values[i] = null;
+		}
+	}
+
+	/**
+	 * resizes and rehashes all keys and values in this map, dropping all deleted
+	 * slots
+	 * 
+	 * @param newSize the new size of the underlying map. this value should be a
+	 *                power of 2 and at least 16
+	 */
+	@SuppressWarnings("unchecked")
+	private void resize(int newSize) {
+		byte[] oldControl = control;
+		K[] oldKeys = keys;
+		V[] oldValues = values;
+
+		control = new byte[newSize];
+		keys = (K[]) new Object[newSize];
+		values = (V[]) new Object[newSize];
+
+		for (int i = 0; i < newSize; i++) {
+			control[i] = EMPTY;
+		}
+
+		for (int i = 0; i < oldControl.length; i++) {
+			if (oldControl[i] < 0) {
+				continue;
+			}
+
+			int h = hash(oldKeys[i].hashCode());
+			int j = findFree(h);
+
+			control[j] = (byte) (h & 0x7f);
+			keys[j] = oldKeys[i];
+			values[j] = oldValues[i];
+		}
+
+		growthLeft = newSize - (newSize >>> 3) - size;
+	}
+
+	/**
+	 * performs the specified action on every key and value of this map
+	 * 
+	 * @param action
+	 */
+	public void forEach(BiConsumer<? super K, ? super V> action) {
+		for (int i = 0; i < control.length; i++) {
+			if (control[i] >= 0) {
+				action.accept(keys[i], values[i]);
+			}
+		}
+	}
+
+	/**
+	 * removes every entry for which the specified filter returns true
+	 * 
+	 * @param filter
+	 * @return the number of removed entries
+	 */
+	public int removeIf(BiPredicate<? super K, ? super V> filter) {
+		int removed = 0;
+
+		for (int i = 0; i < control.length; i++) {
+			if (control[i] >= 0 && filter.test(keys[i], values[i])) {
+				removeAt(i);
+				removed++;
+			}
+		}
+
+		return removed;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append('{');
+		boolean first = true;
+		for (int i = 0; i < control.length; i++) {
+			if (control[i] >= 0) {
+				if (first) {
+					first = false;
+				} else {
+					sb.append(", ");
+				}
+
+				sb.append(keys[i]).append('=').append(values[i]);
+			}
+		}
+		sb.append('}');
+		return sb.toString();
+	}
+}
@@ -0,0 +1,363 @@
+package com.dubiouscandle.candlelib.datastructures;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * open addressing implementation over groups of 16 slots, in the style of
+ * SwissTable. every slot has a control byte holding 7 bits of the hash of its
+ * element, and the 16 control bytes of a group are compared at once with the
+ * Vector API, so equals is only called on elements whose hash fragment matches.
+ * this lets the table run at a load factor of 7/8.
+ * <p>
+ * this class uses the incubating jdk.incubator.vector module, which must be
+ * added with --add-modules jdk.incubator.vector when running. the behavior of
+ * null values is undefined.
+ * 
+ * @param <T> the type of the elements in the set
+ */
+public class SwissSet<T> implements Iterable<T> {
+	private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_128;
+	private static final int GROUP_SHIFT = 4;
+
+	/**
+	 * the control byte of a slot that has never held an element
+	 */
+	public static final byte EMPTY = (byte) 0x80;
+	/**
+	 * the control byte of a slot whose element was removed
+	 */
+	public static final byte DELETED = (byte) 0xfe;
+
+	/**
+	 * the control bytes of this set for convenient iteration. a slot holds an
+	 * element if and only if its control byte is not negative. do not modify this
+	 * array!
+	 */
+	public byte[] control;
+
+	/**
+	 * the values of this set for convienient iteration
+	 */
+	public T[] values;
+
+	/**
+	 * the number of elements in this set. do not change this value!
+	 */
+	public int size;
+
+	/**
+	 * the number of {@link #EMPTY} slots that can still be filled before the set
+	 * has to be resized
+	 */
+	private int growthLeft;
+
+	@SuppressWarnings("unchecked")
+	public SwissSet() {
+		size = 0;
+		control = new byte[16];
+		values = (T[]) new Object[16];
+		clear();
+	}
+
+	/**
+	 * adds the specified element to this set
+	 * 
+	 * @param e
+	 * @return true if the element was added (the element was not already in the
+	 *         set)
+	 */
+	public boolean add(T e) {
+		int h = hash(e.hashCode());
+		byte h2 = (byte) (h & 0x7f);
+		int groupMask = (control.length >>> GROUP_SHIFT) - 1;
+		int g = (h >>> 7) & groupMask;
+		int free = -1;
+
+		for (int step = 1;; step++) {
+			int base = g << GROUP_SHIFT;
+			ByteVector group = ByteVector.fromArray(SPECIES, control, base);
+
+			long matches = group.eq(h2).toLong();
+			while (matches != 0) {
+				if (e.equals(values[base + Long.numberOfTrailingZeros(matches)])) {
+					return false;
+				}
+				matches &= matches - 1;
+			}
+
+			if (free == -1) {
+				long available = group.lt((byte) 0).toLong();
+				if (available != 0) {
+					free = base + Long.numberOfTrailingZeros(available);
+				}
+			}
+
+			if (group.eq(EMPTY).anyTrue()) {
+				break;
+			}
+
+			g = (g + step) & groupMask;
+		}
+
+		if (control[free] == EMPTY) {
+			if (growthLeft == 0) {
+				// rebuild at the same size if most of the used up slots are deleted
+				int limit = control.length - (control.length >>> 3);
+				resize(size >= limit >>> 1 ? control.length << 1 : control.length);
+				free = findFree(h);
+			}
+			growthLeft--;
+		}
+
+		control[free] = h2;
+		values[free] = e;
+		size++;
+		return true;
+	}
+
+	/**
+	 * removes the specified element from this set
+	 * 
+	 * @param e
+	 * @return true if the element was removed (the element was in this set before)
+	 */
+	public boolean remove(T e) {
+		int i = indexOf(e);
+
+		if (i == -1) {
+			return false;
+		}
+
+		removeAt(i);
+		return true;
+	}
+
+	/**
+	 * removes the element in the specified slot
+	 * 
+	 * @param i
+	 */
+	private void removeAt(int i) {
+		values[i] = null;
+		size--;
+
+		// a probe never continues past a group with an empty slot, so no probe chain
+		// runs through this slot if its group has one
+		int base = i & -(1 << GROUP_SHIFT);
+		if (ByteVector.fromArray(SPECIES, control, base).eq(EMPTY).anyTrue()) {
+			control[i] = EMPTY;
+			growthLeft++;
+		} else {
+			control[i] = DELETED;
+		}
+	}
+
+	/**
+	 * 
+	 * @param e
+	 * @return if this set contains e
+	 */
+	public boolean contains(T e) {
+		return indexOf(e) != -1;
+	}
+
+	/**
+	 * @param e
+	 * @return the slot of the specified element, or -1 if it is not in this set
+	 */
+	private int indexOf(T e) {
+		int h = hash(e.hashCode());
+		byte h2 = (byte) (h & 0x7f);
+		int groupMask = (control.length >>> GROUP_SHIFT) - 1;
+		int g = (h >>> 7) & groupMask;
+
+		for (int step = 1;; step++) {
+			int base = g << GROUP_SHIFT;
+			ByteVector group = ByteVector.fromArray(SPECIES, control, base);
+
+			long matches = group.eq(h2).toLong();
+			while (matches != 0) {
+				int i = base + Long.numberOfTrailingZeros(matches);
+				if (e.equals(values[i])) {
+					return i;
+				}
+				matches &= matches - 1;
+			}
+
+			if (group.eq(EMPTY).anyTrue()) {
+				return -1;
+			}
+
+			g = (g + step) & groupMask;
+		}
+	}
+
+	/**
+	 * @param h the hash of an element that is not in this set
+	 * @return the first slot along the probe sequence of the hash that does not
+	 *         hold an element
+	 */
+	private int findFree(int h) {
+		int groupMask = (control.length >>> GROUP_SHIFT) - 1;
+		int g = (h >>> 7) & groupMask;
+
+		for (int step = 1;; step++) {
+			int base = g << GROUP_SHIFT;
+			long available = ByteVector.fromArray(SPECIES, control, base).lt((byte) 0).toLong();
+
+			if (available != 0) {
+				return base + Long.numberOfTrailingZeros(available);
+			}
+
+			g = (g + step) & groupMask;
+		}
+	}
+
+	/**
+	 * @param x
+	 * @return the hash function for this set. the low 7 bits are stored in the
+	 *         control bytes and the rest select the first group
+	 */
+	protected int hash(int x) {
+		x *= 0x9e3779b9;
+		return x ^ (x >>> 16);
+	}
+
+	/**
+	 * clears this set of all elements
+	 */
+	public void clear() {
+		size = 0;
+		growthLeft = control.length - (control.length >>> 3);
+		for (int i = 0; i < control.length; i++) {
+			control[i] = EMPTY;
+			values[i] = null;
+		}
+	}
+
+	/**
+	 * resizes and rehashes all elements in this set, dropping all deleted slots
+	 * 
+	 * @param newSize the new size of the underlying table. this value should be a
+	 *                power of 2 and at least 16
+	 */
+	@SuppressWarnings("unchecked")
+	private void resize(int newSize) {
+		byte[] oldControl = control;
+		T[] oldValues = values;
+
+		control = new byte[newSize];
+		values = (T[]) new Object[newSize];
+
+		for (int i = 0; i < newSize; i++) {
+			control[i] = EMPTY;
+		}
+
+		for (int i = 0; i < oldControl.length; i++) {
+			if (oldControl[i] < 0) {
+				continue;
+			}
+
+			int h = hash(oldValues[i].hashCode());
+			int j = findFree(h);
+
+			control[j] = (byte) (h & 0x7f);
+			values[j] = oldValues[i];
+		}
+
+		growthLeft = newSize - (newSize >>> 3) - size;
+	}
+
+	/**
+	 * performs the specified action on every element of this set, without
+	 * creating an iterator
+	 * 
+	 * @param action
+	 */
+	@Override
+	public void forEach(Consumer<? super T> action) {
+		for (int i = 0; i < control.length; i++) {
+			if (control[i] >= 0) {
+				action.accept(values[i]);
+			}
+		}
+	}
+
+	/**
+	 * removes every element for which the specified filter returns true
+	 * 
+	 * @param filter
+	 * @return the number of removed elements
+	 */
+	public int removeIf(Predicate<? super T> filter) {
+		int removed = 0;
+
+		for (int i = 0; i < control.length; i++) {
+			if (control[i] >= 0 && filter.test(values[i])) {
+				removeAt(i);
+				removed++;
+			}
+		}
+
+		return removed;
+	}
+
+	@Override
+	public String toString() {
+		if (size == 0) {
+			return "[]";
+		}
+
+		StringBuilder sb = new StringBuilder();
+
+		sb.append('[');
+		boolean first = true;
+
+		for (int i = 0; i < control.length; i++) {
+			if (control[i] < 0) {
+				continue;
+			}
+
+			if (first) {
+				first = false;
+			} else {
+				sb.append(',').append(' ');
+			}
+
+			sb.append(values[i]);
+		}
+
+		sb.append(']');
+		return sb.toString();
+	}
+
+	/**
+	 * returns a new iterator for this set
+	 */
+	@Override
+	public Iterator<T> iterator() {
+		return new Iterator<T>() {
+			private int i = 0;
+			private int count = 0;
+
+			@Override
+			public boolean hasNext() {
+				return count < size;
+			}
+
+			@Override
+			public T next() {
+				while (control[i] < 0) {
+					i++;
+				}
+				count++;
+				return values[i++];
+			}
+		};
+	}
+}
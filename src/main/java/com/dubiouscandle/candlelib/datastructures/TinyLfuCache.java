@@ -0,0 +1,460 @@
+package com.dubiouscandle.candlelib.datastructures;
+
+import java.util.Arrays;
+
+/**
+ * a cache that holds at most {@link #maxSize} entries and evicts with the
+ * W-TinyLFU policy. new entries enter a small LRU window of about 1% of the
+ * cache. an entry pushed out of the window is only admitted to the main SLRU
+ * area if it was used more often than the entry the main area would evict for
+ * it, according to a count-min sketch of recent keys, so a burst of keys that
+ * are used once does not flush the popular ones. the main area is split into a
+ * probation segment and a protected segment of 80% of it, which entries reach
+ * by being hit while on probation.
+ * <p>
+ * the keys are found with the same open addressing and double hashing as
+ * {@link ObjObjMap}, in a table of the indices of the entries, and all entries
+ * live in arrays allocated up front, so get and put never allocate. the
+ * behavior of null keys and values is undefined.
+ */
+public class TinyLfuCache<K, V> {
+	private static final int WINDOW = 0;
+	private static final int PROBATION = 1;
+	private static final int PROTECTED = 2;
+
+	private static final int EMPTY = 0;
+	private static final int TOMBSTONE = -1;
+
+	/**
+	 * the most entries this cache holds
+	 */
+	public final int maxSize;
+
+	/**
+	 * the number of entries in this cache. do not modify this field!
+	 */
+	public int size;
+
+	/**
+	 * the number of calls to {@link #get(Object)} that found their key
+	 */
+	public long hits;
+	/**
+	 * the number of calls to {@link #get(Object)} that did not find their key
+	 */
+	public long misses;
+
+	private final int windowMax;
+	private final int protectedMax;
+
+	// the entries, by index
+	private final K[] keys;
+	private final V[] values;
+	private final int[] hashes;
+	private final int[] prev;
+	private final int[] next;
+	private final byte[] queues;
+
+	/**
+	 * the eldest entry, the newest entry and the number of entries of each queue
+	 */
+	private final int[] heads = new int[3];
+	private final int[] tails = new int[3];
+	private final int[] counts = new int[3];
+
+	/**
+	 * the first unused entry, the following ones are linked through next
+	 */
+	private int free;
+
+	/**
+	 * the index of an entry plus one at each occupied slot
+	 */
+	private final int[] table;
+	/**
+	 * the number of slots of the table that are not empty, including tombstones
+	 */
+	private int used;
+
+	private final FrequencySketch sketch;
+
+	/**
+	 * @param maxSize the most entries the cache holds, at least 1
+	 */
+	@SuppressWarnings("unchecked")
+	public TinyLfuCache(int maxSize) {
+		this.maxSize = maxSize;
+		windowMax = Math.max(1, maxSize / 100);
+		protectedMax = (maxSize - windowMax) * 4 / 5;
+
+		// one more entry than the maximum, which is evicted right after it is put
+		int capacity = maxSize + 1;
+		keys = (K[]) new Object[capacity];
+		values = (V[]) new Object[capacity];
+		hashes = new int[capacity];
+		prev = new int[capacity];
+		next = new int[capacity];
+		queues = new byte[capacity];
+
+		int tableSize = 16;
+		while (capacity << 1 > tableSize) {
+			tableSize <<= 1;
+		}
+		table = new int[tableSize];
+
+		sketch = new FrequencySketch(maxSize);
+
+		clearEntries();
+	}
+
+	/**
+	 * counts a hit or a miss, and marks the entry of the key as used if there is
+	 * one
+	 * 
+	 * @param key
+	 * @return the value associated with the specified key, or null if there is none
+	 */
+	public V get(K key) {
+		int h = key.hashCode();
+		sketch.increment(h);
+
+		int slot = indexOf(key, h);
+
+		if (slot == -1) {
+			misses++;
+			return null;
+		}
+
+		hits++;
+		int e = table[slot] - 1;
+		onAccess(e);
+		return values[e];
+	}
+
+	/**
+	 * does not count a hit or a miss and does not mark the entry as used
+	 * 
+	 * @param key
+	 * @return true if the key is in this cache
+	 */
+	public boolean containsKey(K key) {
+		return indexOf(key, key.hashCode()) != -1;
+	}
+
+	/**
+	 * associates the specified value with the specified key. if the cache is
+	 * full, this evicts either the eldest entry of the window, which may be this
+	 * one, or the entry that lost against it
+	 * 
+	 * @param key
+	 * @param value
+	 * @return the value that was associated with the key, or null if there was
+	 *         none
+	 */
+	public V put(K key, V value) {
+		int h = key.hashCode();
+		sketch.increment(h);
+
+		int mask = table.length - 1;
+		int i = h & mask;
+		int d = doubleHash(h);
+		int firstTombstone = -1;
+
+		while (table[i] != EMPTY) {
+			if (table[i] == TOMBSTONE) {
+				if (firstTombstone == -1) {
+					firstTombstone = i;
+				}
+			} else {
+				int e = table[i] - 1;
+
+				if (hashes[e] == h && key.equals(keys[e])) {
+					V old = values[e];
+					values[e] = value;
+					onAccess(e);
+					return old;
+				}
+			}
+
+			i = (i + d) & mask;
+		}
+
+		if (firstTombstone != -1) {
+			i = firstTombstone;
+		} else {
+			used++;
+		}
+
+		int e = free;
+		free = next[e];
+
+		keys[e] = key;
+		values[e] = value;
+		hashes[e] = h;
+		table[i] = e + 1;
+		link(e, WINDOW);
+		size++;
+
+		int candidate = -1;
+		if (counts[WINDOW] > windowMax) {
+			candidate = heads[WINDOW];
+			unlink(candidate);
+			link(candidate, PROBATION);
+		}
+
+		if (size > maxSize) {
+			evict(candidate);
+		}
+
+		if (used << 2 > table.length * 3) {
+			rebuild();
+		}
+
+		return null;
+	}
+
+	/**
+	 * removes the specified key from this cache
+	 * 
+	 * @param key
+	 * @return the value that was associated with the key, or null if there was
+	 *         none
+	 */
+	public V remove(K key) {
+		int slot = indexOf(key, key.hashCode());
+
+		if (slot == -1) {
+			return null;
+		}
+
+		int e = table[slot] - 1;
+		V value = values[e];
+		removeEntry(e, slot);
+		return value;
+	}
+
+	/**
+	 * @return the fraction of the calls to {@link #get(Object)} that found their
+	 *         key, or 0 if there were none
+	 */
+	public double hitRate() {
+		long requests = hits + misses;
+		return requests == 0 ? 0 : (double) hits / requests;
+	}
+
+	/**
+	 * removes every entry and forgets how often each key was used. the hit and
+	 * miss counters are kept
+	 */
+	public void clear() {
+		Arrays.fill(keys, null);
+		Arrays.fill(values, null);
+		Arrays.fill(table, EMPTY);
+		sketch.clear();
+		clearEntries();
+	}
+
+	private void clearEntries() {
+		for (int e = 0; e < next.length; e++) {
+			next[e] = e + 1;
+		}
+		free = 0;
+
+		Arrays.fill(heads, -1);
+		Arrays.fill(tails, -1);
+		Arrays.fill(counts, 0);
+
+		size = 0;
+		used = 0;
+	}
+
+	/**
+	 * evicts one entry after the cache grew past its maximum size
+	 * 
+	 * @param candidate the entry that just moved from the window to probation, or
+	 *                  -1 if there is none
+	 */
+	private void evict(int candidate) {
+		int victim = heads[PROBATION];
+
+		if (victim == candidate) {
+			victim = heads[PROTECTED];
+		}
+
+		if (candidate == -1) {
+			candidate = victim;
+			victim = -1;
+		}
+
+		// the candidate is only admitted if it is used more often than the victim
+		if (victim != -1 && sketch.frequency(hashes[candidate]) > sketch.frequency(hashes[victim])) {
+			removeEntry(victim, slotOf(victim));
+		} else {
+			removeEntry(candidate, slotOf(candidate));
+		}
+	}
+
+	/**
+	 * moves the entry to the back of its queue, or promotes it from probation to
+	 * the protected segment
+	 */
+	private void onAccess(int e) {
+		int queue = queues[e];
+		unlink(e);
+
+		if (queue == PROBATION) {
+			link(e, PROTECTED);
+
+			if (counts[PROTECTED] > protectedMax) {
+				int demoted = heads[PROTECTED];
+				unlink(demoted);
+				link(demoted, PROBATION);
+			}
+		} else {
+			link(e, queue);
+		}
+	}
+
+	private void link(int e, int queue) {
+		int tail = tails[queue];
+
+		prev[e] = tail;
+		next[e] = -1;
+		if (tail == -1) {
+			heads[queue] = e;
+		} else {
+			next[tail] = e;
+		}
+		tails[queue] = e;
+
+		queues[e] = (byte) queue;
+		counts[queue]++;
+	}
+
+	private void unlink(int e) {
+		int queue = queues[e];
+		int p = prev[e];
+		int n = next[e];
+
+		if (p == -1) {
+			heads[queue] = n;
+		} else {
+			next[p] = n;
+		}
+		if (n == -1) {
+			tails[queue] = p;
+		} else {
+			prev[n] = p;
+		}
+
+		counts[queue]--;
+	}
+
+	private void removeEntry(int e, int slot) {
+		unlink(e);
+		table[slot] = TOMBSTONE;
+
+		keys[e] = null;
+		values[e] = null;
+		next[e] = free;
+		free = e;
+
+		size--;
+	}
+
+	/**
+	 * @param key
+	 * @param h   the hash code of the key
+	 * @return the slot of the specified key, or -1 if it is not in this cache
+	 */
+	private int indexOf(K key, int h) {
+		int mask = table.length - 1;
+		int i = h & mask;
+		int d = doubleHash(h);
+
+		while (table[i] != EMPTY) {
+			if (table[i] != TOMBSTONE) {
+				int e = table[i] - 1;
+
+				if (hashes[e] == h && key.equals(keys[e])) {
+					return i;
+				}
+			}
+
+			i = (i + d) & mask;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * @param e
+	 * @return the slot of the specified entry
+	 */
+	private int slotOf(int e) {
+		int mask = table.length - 1;
+		int i = hashes[e] & mask;
+		int d = doubleHash(hashes[e]);
+
+		while (table[i] != e + 1) {
+			i = (i + d) & mask;
+		}
+
+		return i;
+	}
+
+	/**
+	 * rebuilds the table in place to clear the tombstones left by evictions
+	 */
+	private void rebuild() {
+		Arrays.fill(table, EMPTY);
+		int mask = table.length - 1;
+
+		for (int queue = 0; queue < 3; queue++) {
+			for (int e = heads[queue]; e != -1; e = next[e]) {
+				int i = hashes[e] & mask;
+				int d = doubleHash(hashes[e]);
+
+				while (table[i] != EMPTY) {
+					i = (i + d) & mask;
+				}
+
+				table[i] = e + 1;
+			}
+		}
+
+		used = size;
+	}
+
+	private int doubleHash(int x) {
+		x = (x + 0x7ed55d16) + (x << 12);
+		x = (x ^ 0xc761c23c) ^ (x >> 19);
+		x = (x + 0x165667b1) + (x << 5);
+		x = (x + 0xd3a2646c) ^ (x << 9);
+		x = (x + 0xfd7046c5) + (x << 3);
+		x = (x ^ 0xb55a4f09) ^ (x >> 16);
+		return (x & 1) == 1 ? x : (x << 1 | 1);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append('{');
+		boolean first = true;
+
+		for (int queue = 0; queue < 3; queue++) {
+			for (int e = heads[queue]; e != -1; e = next[e]) {
+				if (first) {
+					first = false;
+				} else {
+					sb.append(',').append(' ');
+				}
+
+				sb.append(keys[e]).append('=').append(values[e]);
+			}
+		}
+
+		sb.append('}');
+		return sb.toString();
+	}
+}
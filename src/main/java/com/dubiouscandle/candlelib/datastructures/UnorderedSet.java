@@ -1,11 +1,31 @@
 package com.dubiouscandle.candlelib.datastructures;
 
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * open addressing implementation using double hashing. the behavior of null
  * values is undefined. this class is not designed for especially fast
- * iteration.
+ * iteration, see {@link DenseSet} for a set that iterates over a packed array.
+ * see {@link LinearUnorderedSet} for a set that never needs rehashing after
+ * removals.
+ * <p>
+ * by default, growing the set rehashes every element at once. setting
+ * {@link #resizeStep} instead spreads that work over the following adds and
+ * removes, so no single call pays for rehashing the whole set. while such a
+ * resize is in progress {@link #values} only holds part of the elements, so
+ * call {@link #finishResize()} before iterating it.
+ * <p>
+ * the table grows once more than its load factor share of the slots hold
+ * elements, and halves once a quarter of that share is left, but never below the
+ * capacity the constructor gave it. {@link #trimToSize()} shrinks it further.
+ * <p>
+ * the elements are hashed and compared by a {@link HashingStrategy}, which
+ * calls their hashCode and equals methods unless another one is given.
  * 
  * @param <T> the type of the elements in the set
  */
@@ -15,6 +35,12 @@ public class UnorderedSet<T> implements Iterable<T> {
 	 */
 	public static final Object TOMBSTONE = new Object();
 
+	/**
+	 * the number of elements whose first slots are loaded together by the batch
+	 * operations
+	 */
+	private static final int BATCH = 16;
+
 	@SuppressWarnings("unchecked")
 	private T tombstone = (T) TOMBSTONE;
 
@@ -28,10 +54,96 @@ public class UnorderedSet<T> implements Iterable<T> {
 	 */
 	public int size;
 
-	@SuppressWarnings("unchecked")
+	/**
+	 * the number of slots of the old table that are rehashed by each add and
+	 * remove while a resize is in progress, or 0 to rehash every element as soon
+	 * as the set grows. at least 1 / the load factor, so 2 at the default load
+	 * factor, finishes a resize that grew the table before the next growth is
+	 * due. a resize still in progress when the next one is due, such as one that
+	 * shrank the table, is finished at once by it
+	 */
+	public int resizeStep;
+
+	private T[] oldValues;
+	/**
+	 * the number of slots of the old table that have already been rehashed
+	 */
+	private int migrated;
+
+	/**
+	 * the statistics of this set, or null if they are not collected
+	 */
+	private HashStats stats;
+
+	/**
+	 * the fraction of the slots that may hold elements before the table grows
+	 */
+	private final float loadFactor;
+	/**
+	 * the number of elements above which the table grows
+	 */
+	private int threshold;
+	/**
+	 * the capacity the table never shrinks below on its own
+	 */
+	private final int minCapacity;
+
+	/**
+	 * hashes and compares the elements
+	 */
+	private final HashingStrategy<? super T> strategy;
+
 	public UnorderedSet() {
-		values = (T[]) new Object[16];
+		this(8, 0.5f);
+	}
+
+	/**
+	 * @param expectedSize the number of elements the set holds without growing
+	 */
+	public UnorderedSet(int expectedSize) {
+		this(expectedSize, 0.5f);
+	}
+
+	/**
+	 * @param strategy hashes and compares the elements instead of their own
+	 *                 hashCode and equals methods
+	 */
+	public UnorderedSet(HashingStrategy<? super T> strategy) {
+		this(8, 0.5f, strategy);
+	}
+
+	/**
+	 * @param expectedSize the number of elements the set holds without growing
+	 * @param loadFactor   the fraction of the slots that may hold elements before
+	 *                     the table grows. lower values make probes shorter and
+	 *                     take more memory
+	 * @throws IllegalArgumentException if the load factor is not between 0 and 1
+	 */
+	public UnorderedSet(int expectedSize, float loadFactor) {
+		this(expectedSize, loadFactor, HashingStrategy.DEFAULT);
+	}
+
+	/**
+	 * @param expectedSize the number of elements the set holds without growing
+	 * @param loadFactor   the fraction of the slots that may hold elements before
+	 *                     the table grows. lower values make probes shorter and
+	 *                     take more memory
+	 * @param strategy     hashes and compares the elements instead of their own
+	 *                     hashCode and equals methods
+	 * @throws IllegalArgumentException if the load factor is not between 0 and 1
+	 */
+	@SuppressWarnings("unchecked")
+	public UnorderedSet(int expectedSize, float loadFactor, HashingStrategy<? super T> strategy) {
+		if (!(loadFactor > 0 && loadFactor < 1)) {
+			throw new IllegalArgumentException("load factor must be between 0 and 1: " + loadFactor);
+		}
+
+		this.loadFactor = loadFactor;
+		this.strategy = strategy;
+		minCapacity = capacityFor(expectedSize);
+		values = (T[]) new Object[minCapacity];
 		size = 0;
+		threshold = (int) (minCapacity * loadFactor);
 	}
 
 	/**
@@ -43,7 +155,7 @@ public class UnorderedSet<T> implements Iterable<T> {
 	 */
 	public boolean add(T e) {
 		int mask = values.length - 1;
-		int i = e.hashCode();
+		int i = hash(e);
 		int d = doubleHash(i);
 		i &= mask;
 		int end = i;
@@ -52,7 +164,10 @@ public class UnorderedSet<T> implements Iterable<T> {
 
 		if (values[i] != null) {
 			do {
-				if (e.equals(values[i])) {
+				if (values[i] != tombstone && eq(e, values[i])) {
+					if (oldValues != null) {
+						migrate(resizeStep);
+					}
 					return false;
 				} else if (firstTombstone == -1 && values[i] == tombstone) {
 					firstTombstone = i;
@@ -66,34 +181,316 @@ public class UnorderedSet<T> implements Iterable<T> {
 			i = firstTombstone;
 		}
 
+		if (oldValues != null && indexOf(oldValues, e) != -1) {
+			migrate(resizeStep);
+			return false;
+		}
+
 		values[i] = e;
 		size++;
-		if (size << 1 > values.length) {
+		if (size > threshold) {
 			resize(values.length << 1);
+		} else if (oldValues != null) {
+			migrate(resizeStep);
 		}
 		return true;
 	}
 
+	/**
+	 * adds many elements at once. the table is grown once up front so that all
+	 * elements fit, which also finishes any incremental resize in progress, and
+	 * the hash codes and first slots of a group of elements are loaded before any
+	 * of them is added
+	 * 
+	 * @param elements
+	 * @return the number of elements that were added (were not already in the
+	 *         set)
+	 */
+	public int addAll(T[] elements) {
+		ensureCapacity(size + elements.length);
+		finishResize();
+
+		T[] table = values;
+		int mask = table.length - 1;
+		int[] slots = new int[BATCH];
+		Object[] first = new Object[BATCH];
+		int added = 0;
+
+		for (int base = 0; base < elements.length; base += BATCH) {
+			int n = Math.min(BATCH, elements.length - base);
+
+			for (int j = 0; j < n; j++) {
+				slots[j] = hash(elements[base + j]) & mask;
+			}
+
+			for (int j = 0; j < n; j++) {
+				first[j] = table[slots[j]];
+			}
+
+			for (int j = 0; j < n; j++) {
+				int i = slots[j];
+
+				// an empty first slot means the element is not in the table, unless an
+				// earlier element of the same group was just added there
+				if (first[j] == null && table[i] == null) {
+					table[i] = elements[base + j];
+					size++;
+					added++;
+				} else if (add(elements[base + j])) {
+					added++;
+				}
+			}
+		}
+
+		return added;
+	}
+
+	/**
+	 * checks many elements at once. the hash codes of a group of elements are
+	 * computed and all of their first slots are loaded before any of them is
+	 * compared, so their cache misses overlap instead of each check waiting for
+	 * the previous one
+	 * 
+	 * @param elements
+	 * @param out      receives whether each element is in this set
+	 */
+	@SuppressWarnings("unchecked")
+	public void containsAll(T[] elements, boolean[] out) {
+		if (oldValues != null) {
+			for (int j = 0; j < elements.length; j++) {
+				out[j] = contains(elements[j]);
+			}
+			return;
+		}
+
+		T[] table = values;
+		int mask = table.length - 1;
+		int[] slots = new int[BATCH];
+		Object[] first = new Object[BATCH];
+
+		for (int base = 0; base < elements.length; base += BATCH) {
+			int n = Math.min(BATCH, elements.length - base);
+
+			for (int j = 0; j < n; j++) {
+				slots[j] = hash(elements[base + j]) & mask;
+			}
+
+			for (int j = 0; j < n; j++) {
+				first[j] = table[slots[j]];
+			}
+
+			for (int j = 0; j < n; j++) {
+				T e = elements[base + j];
+
+				if (first[j] == null) {
+					out[base + j] = false;
+				} else if (first[j] != tombstone && eq(e, (T) first[j])) {
+					out[base + j] = true;
+				} else {
+					out[base + j] = indexOf(table, e) != -1;
+				}
+			}
+		}
+	}
+
+	/**
+	 * grows the table once so that the specified number of elements fit without
+	 * another resize
+	 * 
+	 * @param expectedSize
+	 */
+	public void ensureCapacity(int expectedSize) {
+		int newSize = capacityFor(expectedSize);
+		if (newSize > values.length) {
+			resize(newSize);
+		}
+	}
+
+	/**
+	 * shrinks the table to the smallest capacity that holds the elements of this
+	 * set, which also clears all tombstones
+	 */
+	public void trimToSize() {
+		int newSize = capacityFor(size);
+		if (newSize < values.length) {
+			resize(newSize);
+		}
+	}
+
+	/**
+	 * halves the table, or more after a bulk removal, once a quarter of the
+	 * elements it may hold are left, as long as it stays at least as large as the
+	 * constructor made it
+	 * 
+	 * @return true if the table shrank
+	 */
+	private boolean shrinkIfSparse() {
+		if (size >= threshold >> 2 || values.length <= minCapacity) {
+			return false;
+		}
+
+		resize(Math.max(minCapacity, capacityFor(size) << 1));
+		return true;
+	}
+
+	/**
+	 * @param expectedSize
+	 * @return the smallest power of 2, and at least 16, whose load factor share
+	 *         holds the specified number of elements
+	 */
+	private int capacityFor(int expectedSize) {
+		int capacity = 16;
+		while (capacity < 1 << 30 && expectedSize > (long) (capacity * (double) loadFactor)) {
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+
+	/**
+	 * @return the number of bytes of the arrays of this set, including the old
+	 *         table of an incremental resize in progress, assuming compressed
+	 *         references of 4 bytes. the elements themselves are not counted
+	 */
+	public long memoryFootprintBytes() {
+		long slots = values.length + (oldValues == null ? 0 : oldValues.length);
+		return slots * Integer.BYTES;
+	}
+
+	/**
+	 * adds the specified element to this set if no equal element is already in
+	 * it. this can be used to intern values
+	 * 
+	 * @param e
+	 * @return the element of this set that is equal to the specified one, which
+	 *         is the specified element itself if it was added
+	 */
+	public T addOrGet(T e) {
+		int mask = values.length - 1;
+		int i = hash(e);
+		int d = doubleHash(i);
+		i &= mask;
+		int end = i;
+
+		int firstTombstone = -1;
+
+		if (values[i] != null) {
+			do {
+				if (values[i] == tombstone) {
+					if (firstTombstone == -1) {
+						firstTombstone = i;
+					}
+				} else if (eq(e, values[i])) {
+					T existing = values[i];
+					if (oldValues != null) {
+						migrate(resizeStep);
+					}
+					return existing;
+				}
+
+				i = (i + d) & mask;
+			} while (values[i] != null && i != end);
+		}
+
+		if (firstTombstone != -1) {
+			i = firstTombstone;
+		}
+
+		if (oldValues != null) {
+			int j = indexOf(oldValues, e);
+
+			if (j != -1) {
+				T existing = oldValues[j];
+				migrate(resizeStep);
+				return existing;
+			}
+		}
+
+		values[i] = e;
+		size++;
+		if (size > threshold) {
+			resize(values.length << 1);
+		} else if (oldValues != null) {
+			migrate(resizeStep);
+		}
+		return e;
+	}
+
+	/**
+	 * resizes this set and rehashes all elements, or only the first
+	 * {@link #resizeStep} slots if it is set
+	 * 
+	 * @param newSize the new size of the underlying table. this value should be a
+	 *                power of 2
+	 */
 	@SuppressWarnings("unchecked")
 	private void resize(int newSize) {
-		T[] oldValues = values;
+		HashResizeEvent event = new HashResizeEvent();
+		boolean timed = stats != null || event.isEnabled();
+		long startNanos = timed ? System.nanoTime() : 0;
+		int oldCapacity = values.length;
+
+		finishResize();
+
+		oldValues = values;
+		migrated = 0;
 		values = (T[]) new Object[newSize];
+		threshold = (int) (newSize * loadFactor);
+
+		migrate(resizeStep);
+
+		if (timed) {
+			long nanos = System.nanoTime() - startNanos;
+			if (stats != null) {
+				stats.resized(oldCapacity, newSize, nanos);
+			}
+			event.commit(this, oldCapacity, newSize, size, nanos);
+		}
+	}
+
+	/**
+	 * rehashes the next slots of the old table into the current one
+	 * 
+	 * @param slots the number of slots to rehash, or 0 to rehash all remaining
+	 *              slots
+	 */
+	private void migrate(int slots) {
+		int end = slots <= 0 ? oldValues.length : Math.min(migrated + slots, oldValues.length);
 		int mask = values.length - 1;
 
-		for (T e : oldValues) {
+		for (int i = migrated; i < end; i++) {
+			T e = oldValues[i];
+
 			if (e == null || e == tombstone) {
 				continue;
 			}
 
-			int j = e.hashCode();
+			int j = hash(e);
 			int d = doubleHash(j);
 			j &= mask;
 
-			while (values[j] != null) {
+			while (values[j] != null && values[j] != tombstone) {
 				j = (j + d) & mask;
 			}
 
 			values[j] = e;
+			// keep the old probe chains intact for lookups until the migration ends
+			oldValues[i] = tombstone;
+		}
+
+		migrated = end;
+
+		if (migrated == oldValues.length) {
+			oldValues = null;
+		}
+	}
+
+	/**
+	 * rehashes all remaining elements of an incremental resize, after which
+	 * {@link #values} holds every element of this set
+	 */
+	public void finishResize() {
+		if (oldValues != null) {
+			migrate(0);
 		}
 	}
 
@@ -104,28 +501,49 @@ public class UnorderedSet<T> implements Iterable<T> {
 	 * @return true if the element was removed (the element was in this set before)
 	 */
 	public boolean remove(T e) {
-		int mask = values.length - 1;
-		int i = e.hashCode();
-		int d = doubleHash(i);
-		i &= mask;
+		int i = indexOf(values, e);
+		boolean removed = false;
 
-		if (values[i] == null) {
-			return false;
-		}
-
-		int end = i;
+		if (i != -1) {
+			size--;
+			values[i] = tombstone;
+			removed = true;
+		} else if (oldValues != null) {
+			i = indexOf(oldValues, e);
 
-		do {
-			if (values[i] != tombstone && e.equals(values[i])) {
+			if (i != -1) {
 				size--;
-				values[i] = tombstone;
-				return true;
+				oldValues[i] = tombstone;
+				removed = true;
 			}
+		}
 
-			i = (i + d) & mask;
-		} while (values[i] != null && i != end);
+		if (removed && shrinkIfSparse()) {
+			return true;
+		}
 
-		return false;
+		if (oldValues != null) {
+			migrate(resizeStep);
+		}
+		return removed;
+	}
+
+	/**
+	 * clears this set of all elements
+	 */
+	@SuppressWarnings("unchecked")
+	public void clear() {
+		size = 0;
+		if (values.length > minCapacity) {
+			// a table left large by a spike would only slow down later scans
+			values = (T[]) new Object[minCapacity];
+			threshold = (int) (minCapacity * loadFactor);
+		} else {
+			for (int i = 0; i < values.length; i++) {
+				values[i] = null;
+			}
+		}
+		oldValues = null;
 	}
 
 	/**
@@ -141,25 +559,50 @@ public class UnorderedSet<T> implements Iterable<T> {
 	 * @return if this set contains e
 	 */
 	public boolean contains(T e) {
+		return indexOf(values, e) != -1 || oldValues != null && indexOf(oldValues, e) != -1;
+	}
+
+	/**
+	 * @param values
+	 * @param e
+	 * @return the slot of the specified element in the specified table, or -1 if
+	 *         it is not there
+	 */
+	private int indexOf(T[] values, T e) {
 		int mask = values.length - 1;
-		int i = e.hashCode();
+		int i = hash(e);
 		int d = doubleHash(i);
 		i &= mask;
 
 		if (values[i] == null) {
-			return false;
+			return -1;
 		}
 
 		int end = i;
 
 		do {
-			if (e.equals(values[i])) {
-				return true;
+			if (values[i] != tombstone && eq(e, values[i])) {
+				return i;
 			}
 			i = (i + d) & mask;
 		} while (values[i] != null && i != end);
 
-		return false;
+		return -1;
+	}
+
+	/**
+	 * @return the strategy that hashes and compares the elements of this set
+	 */
+	public HashingStrategy<? super T> hashingStrategy() {
+		return strategy;
+	}
+
+	private int hash(T e) {
+		return strategy.hashCode(e);
+	}
+
+	private boolean eq(T a, T b) {
+		return strategy.equals(a, b);
 	}
 
 	protected int doubleHash(int x) {
@@ -172,6 +615,192 @@ public class UnorderedSet<T> implements Iterable<T> {
 		return (x & 1) == 1 ? x : (x << 1 | 1);
 	}
 
+	/**
+	 * starts collecting statistics about this set. nothing is collected until
+	 * this is called
+	 */
+	public void enableStats() {
+		if (stats == null) {
+			stats = new HashStats();
+		}
+	}
+
+	/**
+	 * stops collecting statistics about this set and discards the collected ones
+	 */
+	public void disableStats() {
+		stats = null;
+	}
+
+	/**
+	 * scans every slot of this set to bring the table statistics up to date
+	 * 
+	 * @return the statistics of this set, or null if they are not enabled
+	 */
+	public HashStats stats() {
+		if (stats == null) {
+			return null;
+		}
+
+		stats.beginScan(values.length, size);
+		int mask = values.length - 1;
+
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] == tombstone) {
+				stats.tombstones++;
+			} else if (values[i] != null) {
+				int h = hash(values[i]);
+				int j = h & mask;
+				int probes = 1;
+
+				if (j != i) {
+					int d = doubleHash(h);
+					do {
+						j = (j + d) & mask;
+						probes++;
+					} while (j != i);
+				}
+
+				stats.addProbeLength(probes);
+			}
+		}
+
+		return stats;
+	}
+
+	/**
+	 * performs the specified action on every element of this set, without
+	 * creating an iterator. this finishes any incremental resize in progress
+	 * 
+	 * @param action
+	 */
+	@Override
+	public void forEach(Consumer<? super T> action) {
+		finishResize();
+
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != null && values[i] != tombstone) {
+				action.accept(values[i]);
+			}
+		}
+	}
+
+	/**
+	 * removes every element for which the specified filter returns true. this
+	 * finishes any incremental resize in progress
+	 * 
+	 * @param filter
+	 * @return the number of removed elements
+	 */
+	public int removeIf(Predicate<? super T> filter) {
+		finishResize();
+		int removed = 0;
+
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != null && values[i] != tombstone && filter.test(values[i])) {
+				values[i] = tombstone;
+				removed++;
+			}
+		}
+
+		size -= removed;
+		shrinkIfSparse();
+		return removed;
+	}
+
+	/**
+	 * returns a new cursor over the elements of this set. this finishes any
+	 * incremental resize in progress
+	 * 
+	 * @return a cursor positioned before the first element
+	 */
+	public Cursor cursor() {
+		finishResize();
+		return new Cursor();
+	}
+
+	/**
+	 * a cursor over the elements of the set, which reads {@link #values}
+	 * directly. a cursor that does not escape the loop using it is usually scalar
+	 * replaced, and one that does can be moved back to the start with
+	 * {@link #reset()} instead of creating another. the set must not be changed
+	 * while the cursor is used, except through {@link #remove()}.
+	 */
+	public final class Cursor {
+		private int i = -1;
+
+		private Cursor() {
+		}
+
+		/**
+		 * moves the cursor to the next element
+		 * 
+		 * @return false if there are no more elements
+		 */
+		public boolean next() {
+			while (++i < values.length) {
+				if (values[i] != null && values[i] != tombstone) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * @return the current element
+		 */
+		public T get() {
+			return values[i];
+		}
+
+		/**
+		 * removes the current element from the set. unlike
+		 * {@link UnorderedSet#remove(Object)}, this never shrinks the table
+		 */
+		public void remove() {
+			values[i] = tombstone;
+			size--;
+		}
+
+		/**
+		 * moves the cursor back before the first element. this finishes any
+		 * incremental resize in progress
+		 * 
+		 * @return this cursor
+		 */
+		public Cursor reset() {
+			finishResize();
+			i = -1;
+			return this;
+		}
+	}
+
+	/**
+	 * returns a spliterator over the elements of this set that splits the table
+	 * by index range. this finishes any incremental resize in progress
+	 */
+	@Override
+	public Spliterator<T> spliterator() {
+		finishResize();
+		return new SlotSpliterator<>(values, values, tombstone, size, Spliterator.DISTINCT | Spliterator.NONNULL);
+	}
+
+	/**
+	 * @return a sequential stream of the elements of this set. this finishes any
+	 *         incremental resize in progress
+	 */
+	public Stream<T> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+
+	/**
+	 * @return a parallel stream of the elements of this set. this finishes any
+	 *         incremental resize in progress
+	 */
+	public Stream<T> parallelStream() {
+		return StreamSupport.stream(spliterator(), true);
+	}
+
 	@Override
 	public String toString() {
 		if (size == 0) {
@@ -181,20 +810,36 @@ public class UnorderedSet<T> implements Iterable<T> {
 		StringBuilder sb = new StringBuilder();
 
 		sb.append('[');
-		int i = 0;
+		boolean first = true;
 
-		while (values[i] == null || values[i] == tombstone) {
-			i++;
-		}
-
-		sb.append(values[i++]);
-
-		for (; i < values.length; i++) {
+		for (int i = 0; i < values.length; i++) {
 			if (values[i] == null || values[i] == tombstone) {
 				continue;
 			}
 
-			sb.append(',').append(' ').append(values[i]);
+			if (first) {
+				first = false;
+			} else {
+				sb.append(',').append(' ');
+			}
+
+			sb.append(values[i]);
+		}
+
+		if (oldValues != null) {
+			for (int i = migrated; i < oldValues.length; i++) {
+				if (oldValues[i] == null || oldValues[i] == tombstone) {
+					continue;
+				}
+
+				if (first) {
+					first = false;
+				} else {
+					sb.append(',').append(' ');
+				}
+
+				sb.append(oldValues[i]);
+			}
 		}
 
 		sb.append(']');
@@ -202,10 +847,13 @@ public class UnorderedSet<T> implements Iterable<T> {
 	}
 
 	/**
-	 * returns a new iterator for this set
+	 * returns a new iterator for this set. this finishes any incremental resize in
+	 * progress
 	 */
 	@Override
 	public Iterator<T> iterator() {
+		finishResize();
+
 		return new Iterator<T>() {
 			private int i = 0;
 			private int count = 0;
@@ -1,6 +1,10 @@
 package com.dubiouscandle.candlelib.datastructures;
 
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * No checks are performed for bounds or null values in this class. It is the
@@ -103,6 +107,29 @@ public class Vector<T> implements Iterable<T> {
 		size = 0;
 	}
 
+	/**
+	 * @return a spliterator over the items of this vector that splits by index
+	 *         range, so every part knows its exact size
+	 */
+	@Override
+	public Spliterator<T> spliterator() {
+		return Spliterators.spliterator(items, 0, size, Spliterator.ORDERED);
+	}
+
+	/**
+	 * @return a sequential stream of the items of this vector
+	 */
+	public Stream<T> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+
+	/**
+	 * @return a parallel stream of the items of this vector
+	 */
+	public Stream<T> parallelStream() {
+		return StreamSupport.stream(spliterator(), true);
+	}
+
 	@Override
 	public String toString() {
 		if (size == 0) {
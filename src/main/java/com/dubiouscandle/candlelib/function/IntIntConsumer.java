@@ -0,0 +1,11 @@
+package com.dubiouscandle.candlelib.function;
+
+/**
+ * an operation on a pair of ints, such as a key and a value of an
+ * {@link com.dubiouscandle.candlelib.datastructures.IntIntMap}, without
+ * boxing them
+ */
+@FunctionalInterface
+public interface IntIntConsumer {
+	void accept(int key, int value);
+}
@@ -0,0 +1,68 @@
+package com.dubiouscandle.candlelib.datastructures;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class DequeTest {
+	/**
+	 * moves the head and the tail to the specified slot of an empty deque, so the
+	 * items appended after it wrap around the end of the buffer
+	 */
+	private static Deque<Integer> emptyAt(int offset) {
+		Deque<Integer> deque = new Deque<>();
+		for (int i = 0; i < offset; i++) {
+			deque.append(-1);
+			deque.poll();
+		}
+		return deque;
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 0, 1, 8, 15 })
+	void appendAcrossWraparound(int offset) {
+		Deque<Integer> deque = emptyAt(offset);
+
+		for (int i = 0; i < 100; i++) {
+			deque.append(i);
+			assertEquals(i + 1, deque.size());
+		}
+		for (int i = 0; i < 100; i++) {
+			assertEquals(i, deque.get(i));
+		}
+		for (int i = 0; i < 100; i++) {
+			assertEquals(i, deque.poll());
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 0, 1, 8, 15 })
+	void pushAcrossWraparound(int offset) {
+		Deque<Integer> deque = emptyAt(offset);
+
+		for (int i = 0; i < 100; i++) {
+			deque.push(i);
+			assertEquals(i + 1, deque.size());
+		}
+		for (int i = 0; i < 100; i++) {
+			assertEquals(99 - i, deque.poll());
+		}
+	}
+
+	@Test
+	void pushOntoFullBuffer() {
+		Deque<Integer> deque = new Deque<>();
+		// fills all but the last slot, with the tail on the last slot
+		for (int i = 0; i < 15; i++) {
+			deque.append(i);
+		}
+		deque.push(-1);
+
+		assertEquals(16, deque.size());
+		for (int i = -1; i < 15; i++) {
+			assertEquals(i, deque.poll());
+		}
+	}
+}
@@ -0,0 +1,44 @@
+package com.dubiouscandle.candlelib.datastructures;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class LinearIntIntMapTest {
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 7, 100, 5000 })
+	void removeIfTestsEveryEntryOnce(int n) {
+		Random random = new Random(n);
+		LinearIntIntMap map = new LinearIntIntMap();
+		Map<Integer, Integer> expected = new HashMap<>();
+		for (int i = 0; i < n; i++) {
+			int key = random.nextInt();
+			map.put(key, i);
+			expected.put(key, i);
+		}
+
+		Map<Integer, Integer> tested = new HashMap<>();
+		int removed = map.removeIf((key, value) -> {
+			assertNull(tested.put(key, value));
+			return (value & 1) == 0;
+		});
+
+		assertEquals(expected, tested);
+		expected.values().removeIf(value -> (value & 1) == 0);
+		assertEquals(n - expected.size(), removed);
+		assertEquals(expected.size(), map.size);
+
+		Map<Integer, Integer> left = new HashMap<>();
+		map.forEach(left::put);
+		assertEquals(expected, left);
+		for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+			assertEquals(entry.getValue(), map.get(entry.getKey()));
+		}
+	}
+}
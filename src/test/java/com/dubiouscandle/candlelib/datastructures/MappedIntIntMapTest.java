@@ -0,0 +1,60 @@
+package com.dubiouscandle.candlelib.datastructures;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedIntIntMapTest {
+	@TempDir
+	Path dir;
+
+	@Test
+	void roundTrip() throws IOException {
+		Path path = dir.resolve("map");
+		try (MappedIntIntMap.Writer writer = new MappedIntIntMap.Writer(path, 1000, -1)) {
+			for (int i = 0; i < 1000; i++) {
+				writer.put(i * 31, i);
+			}
+		}
+
+		MappedIntIntMap map = MappedIntIntMap.open(path);
+		assertEquals(1000, map.size);
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(i, map.get(i * 31));
+		}
+		assertEquals(-1, map.get(1));
+	}
+
+	@Test
+	void putAfterCloseThrows() throws IOException {
+		Path path = dir.resolve("map");
+		MappedIntIntMap.Writer writer = new MappedIntIntMap.Writer(path, 10, 0);
+		writer.put(1, 2);
+		writer.close();
+		byte[] written = Files.readAllBytes(path);
+
+		assertThrows(IllegalStateException.class, () -> writer.put(3, 4));
+		assertDoesNotThrow(writer::close);
+		assertArrayEquals(written, Files.readAllBytes(path));
+	}
+
+	@Test
+	void vectorAddAfterCloseThrows() throws IOException {
+		Path path = dir.resolve("vector");
+		MappedIntVector.Writer writer = new MappedIntVector.Writer(path);
+		writer.add(5);
+		writer.close();
+
+		assertThrows(IllegalStateException.class, () -> writer.add(6));
+		assertDoesNotThrow(writer::close);
+		assertEquals(1, MappedIntVector.open(path).size);
+	}
+}
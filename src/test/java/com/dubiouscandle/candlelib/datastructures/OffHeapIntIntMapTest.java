@@ -0,0 +1,69 @@
+package com.dubiouscandle.candlelib.datastructures;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class OffHeapIntIntMapTest {
+	@Test
+	void putGetRemove() {
+		try (OffHeapIntIntMap map = new OffHeapIntIntMap()) {
+			map.defaultValue = -1;
+			for (int i = 0; i < 1000; i++) {
+				map.put(i * 7, i);
+			}
+			for (int i = 0; i < 1000; i += 2) {
+				assertEquals(i, map.remove(i * 7));
+			}
+
+			assertEquals(500, map.size);
+			for (int i = 0; i < 1000; i++) {
+				assertEquals(i % 2 == 0 ? -1 : i, map.get(i * 7));
+				assertEquals(i % 2 != 0, map.containsKey(i * 7));
+			}
+		}
+	}
+
+	@Test
+	void useAfterCloseThrows() {
+		OffHeapIntIntMap map = new OffHeapIntIntMap();
+		map.put(100, 1);
+		map.close();
+
+		assertThrows(IllegalStateException.class, () -> map.get(100));
+		assertThrows(IllegalStateException.class, () -> map.put(100, 2));
+		assertThrows(IllegalStateException.class, () -> map.remove(100));
+		assertThrows(IllegalStateException.class, () -> map.containsKey(100));
+		assertThrows(IllegalStateException.class, map::clear);
+		assertThrows(IllegalStateException.class, map::rehash);
+		assertThrows(IllegalStateException.class, map::capacity);
+		assertThrows(IllegalStateException.class, map::toString);
+	}
+
+	@Test
+	void closeTwice() {
+		OffHeapIntIntMap map = new OffHeapIntIntMap();
+		map.close();
+		assertDoesNotThrow(map::close);
+	}
+
+	@Test
+	void rehashKeepsEntries() {
+		try (OffHeapIntIntMap map = new OffHeapIntIntMap()) {
+			for (int i = 0; i < 100; i++) {
+				map.put(i, -i);
+			}
+			map.rehash();
+
+			for (int i = 0; i < 100; i++) {
+				assertEquals(-i, map.get(i));
+			}
+			assertFalse(map.containsKey(100));
+			assertTrue(map.capacity() >= 200);
+		}
+	}
+}
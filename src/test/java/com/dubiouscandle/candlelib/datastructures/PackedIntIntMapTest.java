@@ -0,0 +1,45 @@
+package com.dubiouscandle.candlelib.datastructures;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class PackedIntIntMapTest {
+	@Test
+	void forEachVisitsReservedKeys() {
+		PackedIntIntMap map = new PackedIntIntMap();
+		Map<Integer, Integer> expected = new HashMap<>();
+		for (int key = -50; key < 50; key++) {
+			map.put(key, key * 3);
+			expected.put(key, key * 3);
+		}
+		map.put(Integer.MIN_VALUE, 7);
+		expected.put(Integer.MIN_VALUE, 7);
+
+		Map<Integer, Integer> visited = new HashMap<>();
+		map.forEach((key, value) -> assertNull(visited.put(key, value)));
+
+		assertEquals(expected, visited);
+		assertEquals(map.size, visited.size());
+	}
+
+	@Test
+	void removeIfRemovesReservedKeys() {
+		PackedIntIntMap map = new PackedIntIntMap();
+		for (int key = -50; key < 50; key++) {
+			map.put(key, key);
+		}
+		map.put(Integer.MIN_VALUE, 0);
+
+		assertEquals(52, map.removeIf((key, value) -> key <= 0));
+		assertEquals(49, map.size);
+		assertFalse(map.containsKey(0));
+		assertFalse(map.containsKey(Integer.MIN_VALUE));
+		assertEquals(1, map.get(1));
+	}
+}
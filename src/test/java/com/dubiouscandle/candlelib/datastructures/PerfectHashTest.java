@@ -0,0 +1,44 @@
+package com.dubiouscandle.candlelib.datastructures;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class PerfectHashTest {
+	@ParameterizedTest
+	@ValueSource(ints = { 0, 1, 2, 3, 17, 1000, 100_000, 1_000_000 })
+	void slotsAreAPermutation(int n) {
+		int[] hashCodes = new int[n];
+		for (int i = 0; i < n; i++) {
+			hashCodes[i] = i * 0x9e3779b9 + 7;
+		}
+
+		PerfectHash hash = new PerfectHash(hashCodes);
+		boolean[] used = new boolean[n];
+
+		for (int i = 0; i < n; i++) {
+			int slot = hash.slotOf(hashCodes[i]);
+			assertEquals(hash.slots[i], slot);
+			assertFalse(used[slot], "slot " + slot + " used twice");
+			used[slot] = true;
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1000, 100_000 })
+	void frozenMapFindsEveryKey(int n) {
+		IntIntMap map = new IntIntMap();
+		map.defaultValue = -1;
+		for (int i = 0; i < n; i++) {
+			map.put(i << 8, i);
+		}
+
+		FrozenIntIntMap frozen = map.freeze();
+		for (int i = 0; i < n; i++) {
+			assertEquals(i, frozen.get(i << 8));
+			assertEquals(-1, frozen.get((i << 8) + 1));
+		}
+	}
+}
@@ -0,0 +1,135 @@
+package com.dubiouscandle.candlelib.datastructures;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * covers the generated maps other than {@link IntIntMap}, which share its
+ * template
+ */
+class PrimitiveMapTest {
+	@ParameterizedTest
+	@ValueSource(ints = { 0, 2 })
+	void growsAndShrinks(int resizeStep) {
+		LongLongMap map = new LongLongMap();
+		map.resizeStep = resizeStep;
+		map.defaultValue = -1;
+		map.enableStats();
+
+		for (long key = 0; key < 100_000; key++) {
+			map.put(key << 32, key);
+		}
+		assertEquals(100_000, map.size);
+		for (long key = 0; key < 100_000; key++) {
+			assertEquals(key, map.get(key << 32));
+		}
+
+		for (long key = 0; key < 99_990; key++) {
+			assertEquals(key, map.remove(key << 32));
+		}
+		map.finishResize();
+		assertEquals(10, map.size);
+		// twice the capacity that holds the entries, so the next removes do not shrink it again
+		assertEquals(64, map.status.length);
+		assertEquals(-1, map.get(0));
+		assertEquals(99_995, map.get(99_995L << 32));
+		assertTrue(map.stats().resizes > 0);
+	}
+
+	@Test
+	void emitsResizeEventsWithoutStats() throws Exception {
+		Path file = Files.createTempFile("resize", ".jfr");
+		try (Recording recording = new Recording()) {
+			recording.enable("com.dubiouscandle.candlelib.HashResize");
+			recording.start();
+
+			IntLongMap map = new IntLongMap();
+			for (int key = 0; key < 1000; key++) {
+				map.put(key, key);
+			}
+
+			recording.stop();
+			recording.dump(file);
+		}
+
+		List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+		Files.delete(file);
+		assertFalse(events.isEmpty());
+		for (RecordedEvent event : events) {
+			assertEquals(IntLongMap.class.getName(), event.getString("tableClass"));
+		}
+	}
+
+	@Test
+	void rejectsLoadFactor() {
+		assertThrows(IllegalArgumentException.class, () -> new IntLongMap(10, 1));
+	}
+
+	@Test
+	void presizedForExpectedSize() {
+		IntFloatMap map = new IntFloatMap(1000, 0.75f);
+		int capacity = map.status.length;
+
+		for (int key = 0; key < 1000; key++) {
+			map.put(key, key);
+		}
+		assertEquals(capacity, map.status.length);
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 4 })
+	void buildKeepsLastOfEqualKeys(int parallelism) {
+		String[] keys = new String[50_000];
+		int[] values = new int[keys.length];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = Integer.toString(i % 20_000);
+			values[i] = i;
+		}
+
+		ObjIntMap<String> map = ObjIntMap.build(keys, values, parallelism);
+		assertEquals(20_000, map.size);
+		for (int i = 0; i < 20_000; i++) {
+			assertEquals(i + 40_000 < keys.length ? i + 40_000 : i + 20_000, map.get(Integer.toString(i)));
+		}
+	}
+
+	@Test
+	void cursorRemovesAndClearsReferences() {
+		IntObjMap<String> map = new IntObjMap<>();
+		for (int key = 0; key < 100; key++) {
+			map.put(key, Integer.toString(key));
+		}
+
+		for (IntObjMap<String>.Cursor c = map.cursor(); c.next();) {
+			if ((c.key() & 1) == 1) {
+				c.remove();
+			}
+		}
+
+		assertEquals(50, map.size);
+		assertFalse(map.containsKey(1));
+		assertEquals("2", map.get(2));
+		// the values array is an Object[], which only the erased type can read
+		Object[] values = map.values;
+		for (int i = 0; i < map.status.length; i++) {
+			if (map.status[i] != IntObjMap.OCCUPIED) {
+				assertNull(values[i]);
+			}
+		}
+	}
+}
@@ -0,0 +1,34 @@
+package com.dubiouscandle.candlelib.datastructures;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class SwissMapTest {
+	@Test
+	void removeIfKeepsProbesIntact() {
+		SwissMap<Integer, Integer> map = new SwissMap<>();
+		for (int key = 0; key < 10_000; key++) {
+			map.put(key, key);
+		}
+
+		assertEquals(5000, map.removeIf((key, value) -> key % 2 == 0));
+		assertEquals(5000, map.size);
+
+		for (int key = 0; key < 10_000; key++) {
+			if (key % 2 == 0) {
+				assertNull(map.get(key));
+			} else {
+				assertEquals(key, map.get(key));
+			}
+		}
+
+		Map<Integer, Integer> visited = new HashMap<>();
+		map.forEach(visited::put);
+		assertEquals(5000, visited.size());
+	}
+}